@@ -2,9 +2,8 @@ package com.piotrek.diet.cart;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.piotrek.diet.helpers.BaseEntity;
-import com.piotrek.diet.meal.Meal;
-import com.piotrek.diet.product.Product;
 import lombok.*;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import javax.validation.constraints.NotNull;
@@ -38,8 +37,16 @@ public class Cart extends BaseEntity {
     @JsonFormat(pattern = DATE_FORMAT)
     private LocalDate date;
 
-    private ArrayList<Meal> meals = new ArrayList<>();
-    private ArrayList<Product> products = new ArrayList<>();
+    @Version
+    private Long version;
+
+    private ArrayList<CartItem> items = new ArrayList<>();
+    private ArrayList<CartItem> allProducts = new ArrayList<>();
+
+    private double protein;
+    private double carbohydrate;
+    private double fat;
+    private double kcal;
 
     public Cart(String userId, LocalDate date, int targetUserCalories, int targetUserCarbohydrate, int targetUserProtein,
                 int targetUserFat) {
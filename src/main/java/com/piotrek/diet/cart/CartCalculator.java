@@ -1,76 +1,60 @@
 package com.piotrek.diet.cart;
 
-import com.piotrek.diet.meal.MealDto;
-import com.piotrek.diet.product.ProductDto;
-import lombok.RequiredArgsConstructor;
-import org.decimal4j.util.DoubleRounder;
+import com.piotrek.diet.helpers.NutrientVector;
+import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+
+import static com.piotrek.diet.cart.CartItem.Type.MEAL;
 
 @Component
-@RequiredArgsConstructor
 public class CartCalculator {
 
-    private final DoubleRounder doubleRounder;
-
-    CartDto calculateCartInfo(CartDto cartDto) {
-        var productsFromMeals = retrieveProductsFromMeals(cartDto.getMeals());
-
-        var allProducts = new ArrayList<ProductDto>();
-        allProducts.addAll(cartDto.getProducts());
-        allProducts.addAll(productsFromMeals);
-
-        var allProductsWithoutDuplicates = reduceDuplicates(allProducts);
-        cartDto.setAllProducts(allProductsWithoutDuplicates);
-
-        cartDto.getAllProducts()
-                .forEach(productDto -> {
-                    cartDto.setProtein(doubleRounder.round(cartDto.getProtein() + productDto.getProtein()));
-                    cartDto.setCarbohydrate(doubleRounder.round(cartDto.getCarbohydrate() + productDto.getCarbohydrate()));
-                    cartDto.setFat(doubleRounder.round(cartDto.getFat() + productDto.getFat()));
-                    cartDto.setKcal(doubleRounder.round(cartDto.getKcal() + productDto.getKcal()));
-                });
-
-        return cartDto;
-    }
+    void calculateCartInfo(Cart cart) {
+        var allProducts = new ArrayList<CartItem>();
+        cart.getItems().forEach(item -> {
+            if (item.getType() != MEAL)
+                allProducts.add(item);
+            else if (item.getProducts() != null)
+                allProducts.addAll(item.getProducts());
+        });
+        cart.setAllProducts(reduceDuplicates(allProducts));
 
-    private ArrayList<ProductDto> retrieveProductsFromMeals(ArrayList<MealDto> mealDtos) {
-        var productsFromMeals = new ArrayList<ProductDto>();
-        mealDtos.forEach(mealDto -> productsFromMeals.addAll(mealDto.getProducts()));
-        return productsFromMeals;
+        var total = NutrientVector.sum(cart.getAllProducts(), CartItem::nutrients);
+        cart.setProtein(total.protein());
+        cart.setCarbohydrate(total.carbohydrate());
+        cart.setFat(total.fat());
+        cart.setKcal(total.kcal());
     }
 
-    private ArrayList<ProductDto> reduceDuplicates(ArrayList<ProductDto> allProducts) {
-        var productsWithoutDuplicates = new ArrayList<ProductDto>();
+    private ArrayList<CartItem> reduceDuplicates(ArrayList<CartItem> allProducts) {
+        var productsWithoutDuplicates = new LinkedHashMap<String, CartItem>();
+        var mergedIds = new HashSet<String>();
 
         allProducts.forEach(productToAdd -> {
-            if (productsWithoutDuplicates.contains(productToAdd))
-                productToAdd = calculateDuplicatedProduct(productsWithoutDuplicates, productToAdd);
-            productsWithoutDuplicates.add(productToAdd);
+            var merged = productsWithoutDuplicates.putIfAbsent(productToAdd.getItemId(), productToAdd);
+            if (merged == null)
+                return;
+            if (mergedIds.add(productToAdd.getItemId())) {
+                merged = copyOf(merged);
+                productsWithoutDuplicates.put(productToAdd.getItemId(), merged);
+            }
+            addDuplicatedProduct(merged, productToAdd);
         });
-        return productsWithoutDuplicates;
+        return new ArrayList<>(productsWithoutDuplicates.values());
     }
 
-    private ProductDto calculateDuplicatedProduct(ArrayList<ProductDto> withoutDuplicates, ProductDto duplicated) {
-        int indexOfDuplicatedProduct = withoutDuplicates.indexOf(duplicated);
-        var duplicatedProduct = withoutDuplicates.remove(indexOfDuplicatedProduct);
-
-        var productToAdd = new ProductDto();
-        productToAdd.setAmount(duplicatedProduct.getAmount() + duplicated.getAmount());
-        productToAdd.setProtein(duplicatedProduct.getProtein() + duplicated.getProtein());
-        productToAdd.setCarbohydrateExchange(duplicatedProduct.getCarbohydrateExchange() + duplicated.getCarbohydrateExchange());
-        productToAdd.setCarbohydrate(duplicatedProduct.getCarbohydrate() + duplicated.getCarbohydrate());
-        productToAdd.setFat(duplicatedProduct.getFat() + duplicated.getFat());
-        productToAdd.setFibre(duplicatedProduct.getFibre() + duplicated.getFibre());
-        productToAdd.setDescription(duplicated.getDescription());
-        productToAdd.setUserId(duplicated.getUserId());
-        productToAdd.setProteinAndFatEquivalent(duplicatedProduct.getProteinAndFatEquivalent() + duplicated.getProteinAndFatEquivalent());
-        productToAdd.setId(duplicated.getId());
-        productToAdd.setImageUrl(duplicated.getImageUrl());
-        productToAdd.setKcal(duplicatedProduct.getKcal() + duplicated.getKcal());
-        productToAdd.setName(duplicated.getName());
+    private CartItem copyOf(CartItem product) {
+        var copy = new CartItem();
+        BeanUtils.copyProperties(product, copy);
+        return copy;
+    }
 
-        return productToAdd;
+    private void addDuplicatedProduct(CartItem merged, CartItem duplicated) {
+        merged.setAmount(merged.getAmount() + duplicated.getAmount());
+        merged.setNutrients(merged.nutrients().add(duplicated.nutrients()));
     }
 }
@@ -1,28 +1,38 @@
 package com.piotrek.diet.cart;
 
 import com.piotrek.diet.helpers.DtoConverter;
-import com.piotrek.diet.meal.MealDtoConverter;
-import com.piotrek.diet.product.ProductDtoConverter;
-import lombok.RequiredArgsConstructor;
+import com.piotrek.diet.meal.MealDto;
+import com.piotrek.diet.product.ProductDto;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.piotrek.diet.cart.CartItem.Type.MEAL;
+import static com.piotrek.diet.cart.CartItem.Type.PRODUCT;
+
 @Component
-@RequiredArgsConstructor
 public class CartDtoConverter implements DtoConverter<Cart, CartDto> {
 
-    private final MealDtoConverter mealDtoConverter;
-    private final ProductDtoConverter productDtoConverter;
-    private final CartCalculator cartCalculator;
-
     @Override
     public CartDto toDto(Cart entity) {
         var cartDto = new CartDto(entity.getUserId(), entity.getDate(), entity.getTargetUserCalories(),
                 entity.getTargetUserCarbohydrate(), entity.getTargetUserProtein(), entity.getTargetUserFat());
         cartDto.setId(entity.getId());
-        cartDto.setMeals(mealDtoConverter.listToDto(entity.getMeals()));
-        cartDto.setProducts(productDtoConverter.listToDto(entity.getProducts()));
-        cartDto.setItemCounter(entity.getMeals().size() + entity.getProducts().size());
-        return cartCalculator.calculateCartInfo(cartDto);
+        entity.getItems().forEach(item -> {
+            if (item.getType() == MEAL)
+                cartDto.getMeals().add(toMealDto(item));
+            else
+                cartDto.getProducts().add(toProductDto(item));
+        });
+        entity.getAllProducts().forEach(product -> cartDto.getAllProducts().add(toProductDto(product)));
+        cartDto.setItemCounter(entity.getItems().size());
+        cartDto.setProtein(entity.getProtein());
+        cartDto.setCarbohydrate(entity.getCarbohydrate());
+        cartDto.setFat(entity.getFat());
+        cartDto.setKcal(entity.getKcal());
+        return cartDto;
     }
 
     @Override
@@ -30,8 +40,74 @@ public class CartDtoConverter implements DtoConverter<Cart, CartDto> {
         var cart = new Cart(dto.getUserId(), dto.getDate(), dto.getTargetUserCalories(), dto.getTargetUserCarbohydrate(),
                 dto.getTargetUserProtein(), dto.getTargetUserFat());
         cart.setId(dto.getId());
-        cart.setMeals(mealDtoConverter.listFromDto(dto.getMeals()));
-        cart.setProducts(productDtoConverter.listFromDto(dto.getProducts()));
+        dto.getMeals().forEach(mealDto -> cart.getItems().add(fromMealDto(mealDto)));
+        dto.getProducts().forEach(productDto -> cart.getItems().add(fromProductDto(productDto)));
         return cart;
     }
+
+    private MealDto toMealDto(CartItem item) {
+        var mealDto = new MealDto(item.getItemId());
+        mealDto.setAmount(item.getAmount());
+        mealDto.setProtein(item.getProtein());
+        mealDto.setCarbohydrate(item.getCarbohydrate());
+        mealDto.setFat(item.getFat());
+        mealDto.setFibre(item.getFibre());
+        mealDto.setKcal(item.getKcal());
+        mealDto.setCarbohydrateExchange(item.getCarbohydrateExchange());
+        mealDto.setProteinAndFatEquivalent(item.getProteinAndFatEquivalent());
+        if (item.getProducts() != null)
+            mealDto.setProducts(item.getProducts()
+                    .stream()
+                    .map(this::toProductDto)
+                    .collect(Collectors.toCollection(ArrayList::new)));
+        return mealDto;
+    }
+
+    private ProductDto toProductDto(CartItem item) {
+        var productDto = new ProductDto();
+        productDto.setId(item.getItemId());
+        productDto.setAmount(item.getAmount());
+        productDto.setProtein(item.getProtein());
+        productDto.setCarbohydrate(item.getCarbohydrate());
+        productDto.setFat(item.getFat());
+        productDto.setFibre(item.getFibre());
+        productDto.setKcal(item.getKcal());
+        productDto.setCarbohydrateExchange(item.getCarbohydrateExchange());
+        productDto.setProteinAndFatEquivalent(item.getProteinAndFatEquivalent());
+        return productDto;
+    }
+
+    private CartItem fromMealDto(MealDto mealDto) {
+        var item = new CartItem(mealDto.getId(), MEAL);
+        item.setAmount(mealDto.getAmount());
+        item.setProtein(mealDto.getProtein());
+        item.setCarbohydrate(mealDto.getCarbohydrate());
+        item.setFat(mealDto.getFat());
+        item.setFibre(mealDto.getFibre());
+        item.setKcal(mealDto.getKcal());
+        item.setCarbohydrateExchange(mealDto.getCarbohydrateExchange());
+        item.setProteinAndFatEquivalent(mealDto.getProteinAndFatEquivalent());
+        item.setProducts(listFromProductDto(mealDto.getProducts()));
+        return item;
+    }
+
+    private CartItem fromProductDto(ProductDto productDto) {
+        var item = new CartItem(productDto.getId(), PRODUCT);
+        item.setAmount(productDto.getAmount());
+        item.setProtein(productDto.getProtein());
+        item.setCarbohydrate(productDto.getCarbohydrate());
+        item.setFat(productDto.getFat());
+        item.setFibre(productDto.getFibre());
+        item.setKcal(productDto.getKcal());
+        item.setCarbohydrateExchange(productDto.getCarbohydrateExchange());
+        item.setProteinAndFatEquivalent(productDto.getProteinAndFatEquivalent());
+        return item;
+    }
+
+    private ArrayList<CartItem> listFromProductDto(List<ProductDto> productDtos) {
+        return productDtos
+                .stream()
+                .map(this::fromProductDto)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
 }
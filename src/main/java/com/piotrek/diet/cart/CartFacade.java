@@ -1,19 +1,22 @@
 package com.piotrek.diet.cart;
 
-import com.piotrek.diet.exceptions.NotFoundException;
 import com.piotrek.diet.meal.Meal;
 import com.piotrek.diet.meal.MealService;
 import com.piotrek.diet.product.Product;
 import com.piotrek.diet.product.ProductService;
-import com.piotrek.diet.user.User;
 import com.piotrek.diet.user.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 
+import static com.piotrek.diet.cart.CartItem.Type.MEAL;
+import static com.piotrek.diet.cart.CartItem.Type.PRODUCT;
+import static com.piotrek.diet.helpers.Constants.CART_UPDATE_RETRIES;
+
 @Component
 @RequiredArgsConstructor
 public class CartFacade {
@@ -23,93 +26,84 @@ public class CartFacade {
     private final MealService mealService;
     private final ProductService productService;
     private final CartDtoConverter cartDtoConverter;
+    private final CartItemDetails cartItemDetails;
 
     @PreAuthorize("#userId.equals(principal)")
     public Mono<CartDto> findDtoCartByUserAndDate(String userId, LocalDate date) {
-        return cartService.findByUserIdAndDate(userId, date).map(cartDtoConverter::toDto);
+        return cartService.findByUserIdAndDate(userId, date).flatMap(this::toDto);
     }
 
     @PreAuthorize("#userId.equals(principal)")
     public Mono<CartDto> addMealToCart(String userId, String mealId, LocalDate date, int amount) {
-        Cart cart;
-        try {
-            cart = cartService.findByUserIdAndDate(userId, date).block();
-        } catch (NotFoundException e) {
-            User user = userService.findById(userId).block();
-            cart = new Cart(userId, date, user.getCaloriesPerDay(), user.getCarbohydratePerDay(),
-                    user.getProteinPerDay(), user.getFatPerDay());
-        }
-        Meal meal = mealService.findById(mealId).block();
-        if (cart.getMeals().contains(meal)) {
-            int indexOfDuplicated = cart.getMeals().indexOf(meal);
-            Meal duplicated = cart.getMeals().remove(indexOfDuplicated);
+        return Mono.zip(findOrCreateCart(userId, date), mealService.findById(mealId))
+                .flatMap(cartAndMeal -> cartService.save(addMeal(cartAndMeal.getT1(), cartAndMeal.getT2(), amount)))
+                .retry(CART_UPDATE_RETRIES, OptimisticLockingFailureException.class::isInstance)
+                .flatMap(this::toDto);
+    }
+
+    private Cart addMeal(Cart cart, Meal meal, int amount) {
+        var item = new CartItem(meal.getId(), MEAL);
+        if (cart.getItems().contains(item)) {
+            int indexOfDuplicated = cart.getItems().indexOf(item);
+            var duplicated = cart.getItems().remove(indexOfDuplicated);
             amount += duplicated.getAmount();
         }
 
-        double divider = (double) 100 / amount;
         double amountDivider = (double) amount / meal.getAmount();
 
-        var mealProducts = mealService.createCalculatedProductList(meal.getProducts());
-        mealProducts.forEach(productDto -> {
-            productDto.setAmount((int) (productDto.getAmount() * amountDivider));
-            productDto.setProtein(productDto.getProtein() / divider);
-            productDto.setCarbohydrate(productDto.getCarbohydrate() / divider);
-            productDto.setFat(productDto.getFat() / divider);
-            productDto.setFibre(productDto.getFibre() / divider);
-            productDto.setProteinAndFatEquivalent(productDto.getProteinAndFatEquivalent() / divider);
-            productDto.setCarbohydrateExchange(productDto.getCarbohydrateExchange() / divider);
-            productDto.setKcal(productDto.getKcal() / divider);
-        });
-        mealService.calculateMealInformation(meal, mealProducts);
+        var mealProducts = mealService.createCalculatedProductList(meal.getProducts(), amount);
+        mealProducts.forEach(productDto -> productDto.setAmount((int) (productDto.getAmount() * amountDivider)));
+        mealService.calculatePortionNutrients(meal, amount);
         meal.setProducts(mealProducts);
         meal.setAmount(amount);
-        cart.getMeals().add(meal);
-        return cartService.save(cart).map(cartDtoConverter::toDto);
+        cart.getItems().add(CartItem.of(meal));
+        return cart;
     }
 
     @PreAuthorize("#userId.equals(principal)")
     public Mono<CartDto> deleteMealFromCart(String userId, String mealId, LocalDate date) {
         return cartService.findByUserIdAndDate(userId, date)
-                .flatMap(cart -> {
-                    Meal meal = new Meal(mealId);
-                    if (cart.getMeals().contains(meal)) {
-                        cart.getMeals().remove(meal);
-                        return cartService.save(cart).map(cartDtoConverter::toDto);
-                    } else
-                        return Mono.just(cart).map(cartDtoConverter::toDto);
-                });
+                .flatMap(cart -> cart.getItems().remove(new CartItem(mealId, MEAL)) ? cartService.save(cart) : Mono.just(cart))
+                .retry(CART_UPDATE_RETRIES, OptimisticLockingFailureException.class::isInstance)
+                .flatMap(this::toDto);
     }
 
     @PreAuthorize("#userId.equals(principal)")
     public Mono<CartDto> addProductToCart(String userId, String productId, LocalDate date, int amount) {
-        Cart cart;
-        try {
-            cart = cartService.findByUserIdAndDate(userId, date).block();
-        } catch (NotFoundException e) {
-            User user = userService.findById(userId).block();
-            cart = new Cart(userId, date, user.getCaloriesPerDay(), user.getCarbohydratePerDay(),
-                    user.getProteinPerDay(), user.getFatPerDay());
-        }
-        Product product = productService.findById(productId).block();
+        return Mono.zip(findOrCreateCart(userId, date), productService.findById(productId))
+                .flatMap(cartAndProduct -> cartService.save(addProduct(cartAndProduct.getT1(), cartAndProduct.getT2(), amount)))
+                .retry(CART_UPDATE_RETRIES, OptimisticLockingFailureException.class::isInstance)
+                .flatMap(savedCart -> productService.incrementCartCounter(productId).thenReturn(savedCart))
+                .flatMap(this::toDto);
+    }
+
+    private Cart addProduct(Cart cart, Product product, int amount) {
         product.setAmount(amount);
-        if (cart.getProducts().contains(product)) {
-            int indexOfDuplicated = cart.getProducts().indexOf(product);
-            var duplicated = cart.getProducts().remove(indexOfDuplicated);
+        var item = new CartItem(product.getId(), PRODUCT);
+        if (cart.getItems().contains(item)) {
+            int indexOfDuplicated = cart.getItems().indexOf(item);
+            var duplicated = cart.getItems().remove(indexOfDuplicated);
             product.setAmount(product.getAmount() + duplicated.getAmount());
         }
-        product = productService.calculateProductInfoByAmount(product);
-        cart.getProducts().add(product);
-        return cartService.save(cart).map(cartDtoConverter::toDto);
+        cart.getItems().add(CartItem.of(productService.calculateProductInfoByAmount(product)));
+        return cart;
     }
 
     @PreAuthorize("#userId.equals(principal)")
     public Mono<CartDto> deleteProductFromCart(String userId, String productId, LocalDate date) {
-        Cart cart = cartService.findByUserIdAndDate(userId, date).block();
-        Product product = new Product(productId);
-        if (cart.getProducts().contains(product)) {
-            cart.getProducts().remove(product);
-            cart = cartService.save(cart).block();
-        }
-        return Mono.just(cart).map(cartDtoConverter::toDto);
+        return cartService.findByUserIdAndDate(userId, date)
+                .flatMap(cart -> cart.getItems().remove(new CartItem(productId, PRODUCT)) ? cartService.save(cart) : Mono.just(cart))
+                .retry(CART_UPDATE_RETRIES, OptimisticLockingFailureException.class::isInstance)
+                .flatMap(this::toDto);
+    }
+
+    private Mono<CartDto> toDto(Cart cart) {
+        return cartItemDetails.fill(cartDtoConverter.toDto(cart));
+    }
+
+    private Mono<Cart> findOrCreateCart(String userId, LocalDate date) {
+        return cartService.findOrCreate(userId, date, Mono.defer(() -> userService.findById(userId))
+                .map(user -> new Cart(userId, date, user.getCaloriesPerDay(), user.getCarbohydratePerDay(),
+                        user.getProteinPerDay(), user.getFatPerDay())));
     }
 }
@@ -0,0 +1,62 @@
+package com.piotrek.diet.cart;
+
+import com.piotrek.diet.helpers.WithNutrients;
+import com.piotrek.diet.meal.Meal;
+import com.piotrek.diet.product.Product;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * A meal or product in a cart: a reference to it with the amount and the nutrients already scaled to that amount.
+ * Meals also keep their scaled ingredients. Names and images are not stored, see {@link CartItemDetails}.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(of = {"itemId", "type"})
+public class CartItem implements WithNutrients {
+
+    public enum Type {
+        MEAL, PRODUCT
+    }
+
+    private String itemId;
+    private Type type;
+    private int amount;
+
+    private double protein;
+    private double carbohydrate;
+    private double fat;
+    private double fibre;
+    private double kcal;
+    private double carbohydrateExchange;
+    private double proteinAndFatEquivalent;
+
+    private ArrayList<CartItem> products;
+
+    public CartItem(String itemId, Type type) {
+        this.itemId = itemId;
+        this.type = type;
+    }
+
+    public static CartItem of(Meal meal) {
+        var item = new CartItem(meal.getId(), Type.MEAL);
+        item.setAmount(meal.getAmount());
+        item.setNutrients(meal.nutrients());
+        item.setProducts(meal.getProducts()
+                .stream()
+                .map(CartItem::of)
+                .collect(Collectors.toCollection(ArrayList::new)));
+        return item;
+    }
+
+    public static CartItem of(Product product) {
+        var item = new CartItem(product.getId(), Type.PRODUCT);
+        item.setAmount(product.getAmount());
+        item.setNutrients(product.nutrients());
+        return item;
+    }
+}
@@ -0,0 +1,102 @@
+package com.piotrek.diet.cart;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.piotrek.diet.meal.MealDto;
+import com.piotrek.diet.meal.MealService;
+import com.piotrek.diet.product.ProductDto;
+import com.piotrek.diet.product.ProductService;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Names and images of the meals and products in a cart, which carts don't store. Looked up in bulk when a cart is
+ * read and cached, so a renamed item may show its previous name until the entry expires.
+ */
+@Component
+@RequiredArgsConstructor
+class CartItemDetails {
+
+    static final int MAXIMUM_SIZE = 10_000;
+    static final Duration EXPIRATION = Duration.ofMinutes(10);
+
+    private final MealService mealService;
+    private final ProductService productService;
+
+    private final Cache<String, Details> details = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(EXPIRATION)
+            .build();
+
+    Mono<CartDto> fill(CartDto cartDto) {
+        var products = Stream.of(cartDto.getProducts().stream(), cartDto.getAllProducts().stream(),
+                cartDto.getMeals().stream().flatMap(mealDto -> mealDto.getProducts().stream()))
+                .flatMap(Function.identity())
+                .collect(Collectors.toList());
+        var mealIds = cartDto.getMeals().stream().map(MealDto::getId).collect(Collectors.toSet());
+        var productIds = products.stream().map(ProductDto::getId).collect(Collectors.toSet());
+
+        var mealDetails = find(CartItem.Type.MEAL, mealIds, ids -> mealService.findAllByIds(ids)
+                .map(meal -> new Details(meal.getId(), meal.getName(), meal.getImageUrl())));
+        var productDetails = find(CartItem.Type.PRODUCT, productIds, ids -> productService.findAllByIds(ids)
+                .map(product -> new Details(product.getId(), product.getName(), product.getImageUrl())));
+
+        return Mono.zip(mealDetails, productDetails)
+                .map(found -> {
+                    cartDto.getMeals().forEach(mealDto -> {
+                        var meal = found.getT1().get(mealDto.getId());
+                        if (meal != null) {
+                            mealDto.setName(meal.name);
+                            mealDto.setImageUrl(meal.imageUrl);
+                        }
+                    });
+                    products.forEach(productDto -> {
+                        var product = found.getT2().get(productDto.getId());
+                        if (product != null) {
+                            productDto.setName(product.name);
+                            productDto.setImageUrl(product.imageUrl);
+                        }
+                    });
+                    return cartDto;
+                });
+    }
+
+    private Mono<Map<String, Details>> find(CartItem.Type type, Set<String> ids, Function<Set<String>, Flux<Details>> load) {
+        return Mono.defer(() -> {
+            var found = new HashMap<String, Details>();
+            var missing = new HashSet<String>();
+            ids.forEach(id -> {
+                var cached = details.getIfPresent(type + ":" + id);
+                if (cached == null)
+                    missing.add(id);
+                else
+                    found.put(id, cached);
+            });
+            if (missing.isEmpty())
+                return Mono.just(found);
+
+            return load.apply(missing)
+                    .doOnNext(loaded -> details.put(type + ":" + loaded.id, loaded))
+                    .collect(() -> found, (all, loaded) -> all.put(loaded.id, loaded));
+        });
+    }
+
+    @AllArgsConstructor
+    private static class Details {
+        private final String id;
+        private final String name;
+        private final String imageUrl;
+    }
+}
@@ -0,0 +1,106 @@
+package com.piotrek.diet.cart;
+
+import com.piotrek.diet.meal.Meal;
+import com.piotrek.diet.product.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Replaces the embedded {@code meals} and {@code products} copies of carts with {@link CartItem}s and stores the totals
+ * of carts saved without them. Blocks on context refresh, which completes before the web server starts, so no legacy
+ * cart is read as empty and saved back. Safe to run on every start: migrated carts no longer match.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class CartItemsMigration {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final String LEGACY_MEALS = "meals";
+    private static final String LEGACY_PRODUCTS = "products";
+    private static final String ITEMS = "items";
+    private static final String ALL_PRODUCTS = "allProducts";
+    private static final String VERSION = "version";
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final CartCalculator cartCalculator;
+
+    @Order(2)
+    @EventListener(ContextRefreshedEvent.class)
+    public void migrate() {
+        var count = mongoOperations.find(legacyCarts(new Criteria()), Document.class, mongoOperations.getCollectionName(Cart.class))
+                .flatMap(cart -> migrate(cart, 1))
+                .filter(migrated -> migrated)
+                .count()
+                .block();
+        log.info("Migrated items of " + count + " carts");
+    }
+
+    private Query legacyCarts(Criteria criteria) {
+        var legacyCarts = new Query(criteria.orOperator(where(LEGACY_MEALS).exists(true), where(LEGACY_PRODUCTS).exists(true),
+                where(ALL_PRODUCTS).exists(false)));
+        legacyCarts.fields().include(ITEMS).include(LEGACY_MEALS).include(LEGACY_PRODUCTS).include(VERSION);
+        return legacyCarts;
+    }
+
+    /**
+     * The update only matches the version read, so a cart saved in between isn't overwritten; if it is still a legacy
+     * cart, it is read again and migrated in another attempt.
+     */
+    private Mono<Boolean> migrate(Document cart, int attempt) {
+        var migrated = new Cart();
+        migrated.getItems().addAll(legacyItems(cart.get(ITEMS), item -> read(CartItem.class, item)));
+        migrated.getItems().addAll(legacyItems(cart.get(LEGACY_MEALS), meal -> CartItem.of(read(Meal.class, meal))));
+        migrated.getItems().addAll(legacyItems(cart.get(LEGACY_PRODUCTS), product -> CartItem.of(read(Product.class, product))));
+        cartCalculator.calculateCartInfo(migrated);
+
+        var update = new Update()
+                .set(ITEMS, migrated.getItems())
+                .set(ALL_PRODUCTS, migrated.getAllProducts())
+                .set("protein", migrated.getProtein())
+                .set("carbohydrate", migrated.getCarbohydrate())
+                .set("fat", migrated.getFat())
+                .set("kcal", migrated.getKcal())
+                .unset(LEGACY_MEALS)
+                .unset(LEGACY_PRODUCTS)
+                .inc(VERSION, 1L);
+        var id = cart.get("_id");
+        return mongoOperations.updateFirst(query(where("_id").is(id).and(VERSION).is(cart.get(VERSION))), update, Cart.class)
+                .flatMap(result -> result.getMatchedCount() > 0 || attempt == MAX_ATTEMPTS
+                        ? Mono.just(result.getMatchedCount() > 0)
+                        : mongoOperations.findOne(legacyCarts(where("_id").is(id)), Document.class, mongoOperations.getCollectionName(Cart.class))
+                        .flatMap(legacyCart -> migrate(legacyCart, attempt + 1))
+                        .defaultIfEmpty(false));
+    }
+
+    private List<CartItem> legacyItems(Object legacy, Function<Document, CartItem> toItem) {
+        var items = new ArrayList<CartItem>();
+        if (legacy instanceof List)
+            ((List<?>) legacy).stream()
+                    .filter(Document.class::isInstance)
+                    .map(document -> toItem.apply((Document) document))
+                    .forEach(items::add);
+        return items;
+    }
+
+    private <T> T read(Class<T> type, Document document) {
+        return mongoOperations.getConverter().read(type, document);
+    }
+}
@@ -5,7 +5,7 @@ import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 
-public interface CartRepository extends ReactiveMongoRepository<Cart, String> {
+public interface CartRepository extends ReactiveMongoRepository<Cart, String>, CartRepositoryCustom {
 
     Mono<Cart> findByUserIdAndDate(String userId, LocalDate localDateTime);
 }
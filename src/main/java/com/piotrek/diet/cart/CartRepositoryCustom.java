@@ -0,0 +1,8 @@
+package com.piotrek.diet.cart;
+
+import reactor.core.publisher.Mono;
+
+public interface CartRepositoryCustom {
+
+    Mono<Cart> insertIfAbsent(Cart cart);
+}
@@ -0,0 +1,35 @@
+package com.piotrek.diet.cart;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+class CartRepositoryImpl implements CartRepositoryCustom {
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<Cart> insertIfAbsent(Cart cart) {
+        var document = new Document();
+        mongoOperations.getConverter().write(cart, document);
+        document.remove("_id");
+        document.remove("userId");
+        document.remove("date");
+
+        var update = new Update();
+        document.forEach(update::setOnInsert);
+        update.setOnInsert("version", 0L);
+
+        return mongoOperations.findAndModify(query(where("userId").is(cart.getUserId()).and("date").is(cart.getDate())),
+                update, options().upsert(true).returnNew(true), Cart.class)
+                .retry(1, DuplicateKeyException.class::isInstance);
+    }
+}
@@ -16,6 +16,7 @@ public class CartService {
 
     private final CartRepository cartRepository;
     private final CartDtoConverter cartDtoConverter;
+    private final CartCalculator cartCalculator;
 
     public Mono<Cart> findByUserIdAndDate(String userId, LocalDate localDate) {
         final var EXCEPTION_MESSAGE = "Not found cart for user [id = " + userId + " and date: " +
@@ -25,7 +26,13 @@ public class CartService {
                 .switchIfEmpty(Mono.defer(() -> Mono.error(new NotFoundException(EXCEPTION_MESSAGE))));
     }
 
+    public Mono<Cart> findOrCreate(String userId, LocalDate localDate, Mono<Cart> newCart) {
+        return cartRepository.findByUserIdAndDate(userId, localDate)
+                .switchIfEmpty(newCart.flatMap(cartRepository::insertIfAbsent));
+    }
+
     public Mono<Cart> save(Cart cart) {
+        cartCalculator.calculateCartInfo(cart);
         return cartRepository.save(cart);
     }
 
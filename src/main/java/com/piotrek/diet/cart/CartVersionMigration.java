@@ -0,0 +1,36 @@
+package com.piotrek.diet.cart;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Sets the {@code version} of carts saved before carts were versioned. Without it their next save is taken for an
+ * insert and fails on the duplicated id. Blocks on context refresh, which completes before the web server starts, so
+ * no cart is saved while the migration is running. Safe to run on every start: versioned carts no longer match.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class CartVersionMigration {
+
+    private static final String VERSION = "version";
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Order(1)
+    @EventListener(ContextRefreshedEvent.class)
+    public void migrate() {
+        var result = mongoOperations.updateMulti(new Query(where(VERSION).exists(false)), new Update().set(VERSION, 0L), Cart.class)
+                .block();
+        log.info("Set version of " + result.getModifiedCount() + " carts");
+    }
+}
@@ -0,0 +1,99 @@
+package com.piotrek.diet.cart;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Merges carts stored twice for the same user and day into the oldest one, then creates the unique (userId, date) index
+ * that {@link CartRepositoryImpl#insertIfAbsent} relies on. The index is created here, not with {@code @CompoundIndex},
+ * because building it over duplicates fails. Blocks on context refresh, after {@link CartItemsMigration}, and fails the
+ * start if the index can't be built. Safe to run on every start: merged carts no longer match.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class DuplicateCartsMigration {
+
+    private static final Index USER_ID_DATE = new Index().on("userId", ASC).on("date", ASC).unique().named("userId_date");
+
+    private static final String IDS = "ids";
+
+    private final ReactiveMongoOperations mongoOperations;
+    private final CartCalculator cartCalculator;
+
+    @Order(3)
+    @EventListener(ContextRefreshedEvent.class)
+    public void migrate() {
+        var duplicates = newAggregation(
+                group("userId", "date").push("_id").as(IDS),
+                match(where(IDS + ".1").exists(true)));
+
+        var count = mongoOperations.aggregate(duplicates, mongoOperations.getCollectionName(Cart.class), Document.class)
+                .concatMap(group -> mergeGroup((List<?>) group.get(IDS)))
+                .count()
+                .block();
+        log.info("Merged duplicates of " + count + " carts");
+
+        mongoOperations.indexOps(Cart.class).ensureIndex(USER_ID_DATE).block();
+    }
+
+    private Mono<Cart> mergeGroup(List<?> ids) {
+        return mongoOperations.find(query(where("id").in(ids)).with(Sort.by(ASC, "createdAt")), Cart.class)
+                .collectList()
+                .flatMap(carts -> {
+                    var merged = merge(carts);
+                    cartCalculator.calculateCartInfo(merged);
+                    var duplicateIds = carts.subList(1, carts.size())
+                            .stream()
+                            .map(Cart::getId)
+                            .collect(Collectors.toList());
+                    return mongoOperations.save(merged)
+                            .flatMap(saved -> mongoOperations.remove(query(where("id").in(duplicateIds)), Cart.class)
+                                    .thenReturn(saved));
+                });
+    }
+
+    /**
+     * Adds the items of every cart to the first one, summing the amounts and nutrients of the items in several carts.
+     */
+    static Cart merge(List<Cart> carts) {
+        var merged = carts.get(0);
+        carts.subList(1, carts.size()).forEach(duplicate -> duplicate.getItems().forEach(item -> addItem(merged.getItems(), item)));
+        return merged;
+    }
+
+    private static void addItem(List<CartItem> items, CartItem item) {
+        int index = items.indexOf(item);
+        if (index < 0) {
+            items.add(item);
+            return;
+        }
+
+        var merged = items.get(index);
+        merged.setAmount(merged.getAmount() + item.getAmount());
+        merged.setNutrients(merged.nutrients().add(item.nutrients()));
+        if (item.getProducts() == null)
+            return;
+        if (merged.getProducts() == null)
+            merged.setProducts(new ArrayList<>());
+        item.getProducts().forEach(product -> addItem(merged.getProducts(), product));
+    }
+}
@@ -1,14 +1,30 @@
 package com.piotrek.diet.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.piotrek.diet.product.Product;
 import org.decimal4j.util.DoubleRounder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 public class Config {
 
+    private static final int PRODUCT_CACHE_MAXIMUM_SIZE = 10_000;
+    private static final Duration PRODUCT_CACHE_EXPIRATION = Duration.ofMinutes(10);
+
     @Bean
     public DoubleRounder doubleRounder() {
         return new DoubleRounder(2);
     }
+
+    @Bean
+    public Cache<String, Product> productCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(PRODUCT_CACHE_MAXIMUM_SIZE)
+                .expireAfterWrite(PRODUCT_CACHE_EXPIRATION)
+                .build();
+    }
 }
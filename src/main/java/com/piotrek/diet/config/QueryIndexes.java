@@ -0,0 +1,212 @@
+package com.piotrek.diet.config;
+
+import com.piotrek.diet.meal.Meal;
+import com.piotrek.diet.product.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Creates the indexes backing repository query methods and checks at startup, with {@code explain}, that no derived
+ * query method is planned as a collection scan. Query methods without criteria and sort (paging through the whole
+ * collection) are not checked. The product and meal indexes are declared here rather than with {@code @Indexed},
+ * because annotated indexes are also created for every document embedding the entity (meals embed products).
+ */
+@Slf4j
+@Component
+class QueryIndexes {
+
+    private static final Map<Class<?>, List<IndexDefinition>> INDEXES = Map.of(
+            Meal.class, List.of(new Index("userId", ASC).named("userId"),
+                    new Index("favouriteCounter", DESC).named("favouriteCounter"),
+                    new Index("products._id", ASC).named("products_id"),
+                    new Index().on("createdAt", ASC).on("_id", ASC).named("createdAt_id"),
+                    new Index("searchTrigrams", ASC).named("searchTrigrams"),
+                    new Index("searchName", ASC).named("searchName"),
+                    searchText("Meal_TextIndex")),
+            Product.class, List.of(new Index("userId", ASC).named("userId"),
+                    new Index().on("createdAt", ASC).on("_id", ASC).named("createdAt_id"),
+                    new Index("searchTrigrams", ASC).named("searchTrigrams"),
+                    new Index("searchName", ASC).named("searchName"),
+                    searchText("Product_TextIndex")));
+    private static final String COLLECTION_SCAN = "COLLSCAN";
+
+    private final ListableBeanFactory beanFactory;
+    private final ReactiveMongoOperations mongoOperations;
+    private final boolean failOnCollectionScan;
+
+    QueryIndexes(ListableBeanFactory beanFactory, ReactiveMongoOperations mongoOperations,
+                 @Value("${mongo.query-check.fail-on-collection-scan:false}") boolean failOnCollectionScan) {
+        this.beanFactory = beanFactory;
+        this.mongoOperations = mongoOperations;
+        this.failOnCollectionScan = failOnCollectionScan;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createAndCheck() {
+        var collectionScans = ensureIndexes()
+                .then(findCollectionScans())
+                .onErrorResume(throwable -> {
+                    log.error("Failed to create and check query indexes", throwable);
+                    return Mono.just(List.of());
+                })
+                .block();
+
+        if (collectionScans.isEmpty())
+            return;
+        var message = "Query methods planned as a collection scan: " + collectionScans;
+        if (failOnCollectionScan)
+            throw new IllegalStateException(message);
+        log.warn(message);
+    }
+
+    private static IndexDefinition searchText(String name) {
+        return TextIndexDefinition.builder()
+                .onField("description")
+                .onField("searchName", 3F)
+                .withDefaultLanguage("none")
+                .named(name)
+                .build();
+    }
+
+    private Mono<Void> ensureIndexes() {
+        return Flux.fromIterable(INDEXES.entrySet())
+                .flatMap(indexes -> Flux.fromIterable(indexes.getValue())
+                        .flatMap(index -> mongoOperations.indexOps(indexes.getKey()).ensureIndex(index)))
+                .then();
+    }
+
+    private Mono<List<String>> findCollectionScans() {
+        var repositories = new Repositories(beanFactory);
+        return Flux.fromIterable(repositories)
+                .flatMap(domainType -> Flux.fromIterable(repositories.getRequiredRepositoryInformation(domainType).getQueryMethods())
+                        .concatMap(method -> Mono.justOrEmpty(queryFor(method, domainType))
+                                .flatMap(query -> explain(query, domainType))
+                                .filter(QueryIndexes::isCollectionScan)
+                                .map(plan -> describe(method))))
+                .collectList();
+    }
+
+    private Mono<Document> explain(Query query, Class<?> domainType) {
+        var queryMapper = new QueryMapper(mongoOperations.getConverter());
+        var entity = queryMapper.getMappingContext().getRequiredPersistentEntity(domainType);
+        var find = new Document("find", mongoOperations.getCollectionName(domainType))
+                .append("filter", queryMapper.getMappedObject(query.getQueryObject(), entity))
+                .append("sort", queryMapper.getMappedSort(query.getSortObject(), entity));
+        return mongoOperations.executeCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+    }
+
+    static Optional<Query> queryFor(Method method, Class<?> domainType) {
+        if (method.isAnnotationPresent(org.springframework.data.mongodb.repository.Query.class))
+            return Optional.empty();
+
+        var tree = new PartTree(method.getName(), domainType);
+        var orCriteria = tree.stream()
+                .map(orPart -> orPart.stream().map(QueryIndexes::criteriaFor).collect(Collectors.toList()))
+                .filter(criteria -> !criteria.isEmpty())
+                .collect(Collectors.toList());
+        var textSearch = Arrays.asList(method.getParameterTypes()).contains(TextCriteria.class);
+        if (orCriteria.isEmpty() && tree.getSort().isUnsorted() && !textSearch)
+            return Optional.empty();
+
+        var query = new Query();
+        if (orCriteria.size() == 1)
+            orCriteria.get(0).forEach(query::addCriteria);
+        else if (orCriteria.size() > 1)
+            query.addCriteria(new Criteria().orOperator(orCriteria
+                    .stream()
+                    .map(criteria -> new Criteria().andOperator(criteria.toArray(new Criteria[0])))
+                    .toArray(Criteria[]::new)));
+        if (textSearch)
+            query.addCriteria(TextCriteria.forDefaultLanguage().matching("check"));
+        else
+            query.with(tree.getSort());
+        return Optional.of(query);
+    }
+
+    private static Criteria criteriaFor(Part part) {
+        var property = where(part.getProperty().toDotPath());
+        var sample = sampleOf(part.getProperty().getLeafProperty().getType());
+        switch (part.getType()) {
+            case IN:
+            case CONTAINING:
+                return property.in(sample);
+            case NOT_IN:
+                return property.nin(sample);
+            case GREATER_THAN:
+                return property.gt(sample);
+            case GREATER_THAN_EQUAL:
+                return property.gte(sample);
+            case LESS_THAN:
+                return property.lt(sample);
+            case LESS_THAN_EQUAL:
+                return property.lte(sample);
+            case NEGATING_SIMPLE_PROPERTY:
+                return property.ne(sample);
+            default:
+                return property.is(sample);
+        }
+    }
+
+    private static Object sampleOf(Class<?> type) {
+        if (type == String.class)
+            return "0";
+        if (type == LocalDate.class)
+            return LocalDate.now();
+        if (type == LocalDateTime.class)
+            return LocalDateTime.now();
+        if (type == Boolean.class || type == boolean.class)
+            return true;
+        if (type.isEnum())
+            return type.getEnumConstants()[0];
+        return 0L;
+    }
+
+    static boolean isCollectionScan(Document explain) {
+        return containsCollectionScan(((Document) explain.get("queryPlanner")).get("winningPlan"));
+    }
+
+    private static boolean containsCollectionScan(Object plan) {
+        if (plan instanceof Document) {
+            var stage = (Document) plan;
+            return COLLECTION_SCAN.equals(stage.get("stage"))
+                    || stage.values().stream().anyMatch(QueryIndexes::containsCollectionScan);
+        }
+        if (plan instanceof List)
+            return ((List<?>) plan).stream().anyMatch(QueryIndexes::containsCollectionScan);
+        return false;
+    }
+
+    private static String describe(Method method) {
+        return method.getDeclaringClass().getSimpleName() + "." + method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+}
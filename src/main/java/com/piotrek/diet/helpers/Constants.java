@@ -7,4 +7,6 @@ public class Constants {
     public static final String IMAGE_CONTAINER_MEALS = "meal-images";
     public static final String IMAGE_CONTAINER_PRODUCTS = "product-images";
     public static final String IMAGE_CONTAINER_AVATAR = "user-images";
+
+    public static final int CART_UPDATE_RETRIES = 3;
 }
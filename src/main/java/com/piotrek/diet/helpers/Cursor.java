@@ -0,0 +1,94 @@
+package com.piotrek.diet.helpers;
+
+import com.piotrek.diet.exceptions.BadRequestException;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Position in a (createdAt, id) ordered collection used by keyset pagination.
+ * Keeps the createdAt and id of the last returned entity,
+ * so the next page is {@code createdAt > cursor.createdAt or (createdAt = cursor.createdAt and id > cursor.lastId)}.
+ * The ids compared are all UUID strings, see {@link EntityIdGenerator}.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class Cursor {
+
+    public static final String FIRST_PAGE_CURSOR = "";
+    public static final Sort SORT = Sort.by(Sort.Direction.ASC, "createdAt", "id");
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final String lastId;
+
+    public static Cursor first() {
+        return new Cursor(null, null);
+    }
+
+    public boolean isFirst() {
+        return createdAt == null;
+    }
+
+    /**
+     * Returns page request which fetches one entity more than page size, so we know if there is a next page.
+     */
+    public static Pageable pageRequest(int size) {
+        if (size < 1)
+            throw new BadRequestException("Page size must be positive [size = " + size + "]");
+        return PageRequest.of(0, size + 1, SORT);
+    }
+
+    public static Cursor decode(String value) {
+        if (value == null || value.isEmpty())
+            return first();
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(value), UTF_8);
+            int separatorIndex = decoded.indexOf(SEPARATOR);
+            var createdAt = LocalDateTime.parse(decoded.substring(0, separatorIndex));
+            var lastId = decoded.substring(separatorIndex + 1);
+            if (lastId.isEmpty())
+                throw new BadRequestException("Invalid cursor [cursor = " + value + "]");
+            return new Cursor(createdAt, lastId);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor [cursor = " + value + "]");
+        }
+    }
+
+    public String encode() {
+        var value = createdAt + SEPARATOR + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(UTF_8));
+    }
+
+    /**
+     * Matches the entities after this cursor, for queries not derived from repository method names.
+     */
+    public Criteria criteria() {
+        return new Criteria().orOperator(where("createdAt").gt(createdAt), where("createdAt").is(createdAt).and("id").gt(lastId));
+    }
+
+    /**
+     * Creates cursor pointing right after the last entity of the page.
+     */
+    public Cursor next(List<? extends BaseEntity> page) {
+        var last = page.get(page.size() - 1);
+        return new Cursor(last.getCreatedAt(), last.getId());
+    }
+}
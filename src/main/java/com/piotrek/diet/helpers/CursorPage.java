@@ -0,0 +1,39 @@
+package com.piotrek.diet.helpers;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@NoArgsConstructor
+@ToString
+public class CursorPage<T> {
+
+    private Collection<T> content;
+    private int pageSize;
+    private String nextCursor;
+
+    /**
+     * Builds page from entities fetched with {@link Cursor#pageRequest(int)}, so one more than page size if there is a next page.
+     */
+    public static <E extends BaseEntity, D> CursorPage<D> of(List<E> entities, Cursor cursor, int pageSize, Function<E, D> converter) {
+        var hasNext = entities.size() > pageSize;
+        var pageEntities = hasNext ? entities.subList(0, pageSize) : entities;
+        var content = pageEntities
+                .stream()
+                .map(converter)
+                .collect(Collectors.toList());
+        return new CursorPage<>(content, pageSize, hasNext ? cursor.next(pageEntities).encode() : null);
+    }
+
+    @JsonProperty
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.piotrek.diet.helpers;
+
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Gives entities inserted without an id the same UUID string id as the ones created from a {@link BaseDto}, instead of
+ * an ObjectId generated by MongoDB. Ids of a single BSON type keep {@code _id} range queries, like the {@link Cursor}
+ * tie-breaker, from skipping documents.
+ */
+@Component
+public class EntityIdGenerator extends AbstractMongoEventListener<BaseEntity> {
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<BaseEntity> event) {
+        var entity = event.getSource();
+        if (entity.getId() == null)
+            entity.setId(UUID.randomUUID().toString());
+    }
+}
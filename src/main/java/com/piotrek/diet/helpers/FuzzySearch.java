@@ -0,0 +1,127 @@
+package com.piotrek.diet.helpers;
+
+import org.bson.Document;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Typo tolerant matching on trigrams of normalised names. A name matches when it contains at least half of the
+ * query trigrams, which keeps "maslo" -> "Masło" or "mlekp" -> "Mleko 1%" while rejecting unrelated names.
+ * Matches are ranked by that share in the database, so every document sharing a trigram with the query is considered.
+ */
+public class FuzzySearch {
+
+    static final double SIMILARITY_THRESHOLD = 0.5;
+
+    private static final String SEARCH_TRIGRAMS = "searchTrigrams";
+    private static final String SIMILARITY = "similarity";
+    private static final String CONTENT = "content";
+    private static final String TOTAL = "total";
+
+    public static Set<String> trigrams(String text) {
+        var trigrams = new HashSet<String>();
+        var normalized = TextNormalizer.normalize(text);
+        if (normalized.isEmpty())
+            return trigrams;
+
+        for (var word : normalized.split(" ")) {
+            var padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++)
+                trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    public static <T> Mono<Page<T>> page(ReactiveMongoOperations mongoOperations, Class<T> type, String query, Pageable pageable) {
+        var queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty())
+            return Mono.just(new Page<>(List.of(), pageable.getPageNumber(), pageable.getPageSize(), 0));
+
+        return mongoOperations.aggregate(aggregation(queryTrigrams, pageable), mongoOperations.getCollectionName(type), Document.class)
+                .next()
+                .map(result -> new Page<>(content(result, type, mongoOperations.getConverter()), pageable.getPageNumber(),
+                        pageable.getPageSize(), total(result)));
+    }
+
+    /**
+     * Returns the matches after the cursor in the (createdAt, id) order of cursor pages, rather than ranked, so the
+     * next page continues where this one ends.
+     */
+    public static <T> Flux<T> afterCursor(ReactiveMongoOperations mongoOperations, Class<T> type, String query, Cursor cursor,
+                                          Pageable pageRequest) {
+        var queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty())
+            return Flux.empty();
+
+        var queryMapper = new QueryMapper(mongoOperations.getConverter());
+        var entity = queryMapper.getMappingContext().getRequiredPersistentEntity(type);
+        var afterCursor = cursor.isFirst() ? new Document() : queryMapper.getMappedObject(new Query(cursor.criteria()).getQueryObject(), entity);
+        return mongoOperations.aggregate(cursorAggregation(queryTrigrams, afterCursor, pageRequest.getPageSize()),
+                mongoOperations.getCollectionName(type), Document.class)
+                .map(document -> mongoOperations.getConverter().read(type, document));
+    }
+
+    /**
+     * Matches the documents sharing a trigram with the query through the {@code searchTrigrams} index, then keeps and
+     * sorts those above the threshold; the single result holds the requested page and the number of matches.
+     */
+    static Aggregation aggregation(Set<String> queryTrigrams, Pageable pageable) {
+        var trigrams = List.copyOf(queryTrigrams);
+        return newAggregation(
+                match(where(SEARCH_TRIGRAMS).in(trigrams)),
+                addSimilarity(trigrams),
+                match(where(SIMILARITY).gte(SIMILARITY_THRESHOLD)),
+                facet(sort(Sort.by(DESC, SIMILARITY).and(Sort.by(ASC, "_id"))), skip(pageable.getOffset()), limit(pageable.getPageSize()))
+                        .as(CONTENT)
+                        .and(count().as(TOTAL))
+                        .as(TOTAL));
+    }
+
+    static Aggregation cursorAggregation(Set<String> queryTrigrams, Document afterCursor, int limit) {
+        var trigrams = List.copyOf(queryTrigrams);
+        return newAggregation(
+                match(where(SEARCH_TRIGRAMS).in(trigrams)),
+                context -> new Document("$match", afterCursor),
+                addSimilarity(trigrams),
+                match(where(SIMILARITY).gte(SIMILARITY_THRESHOLD)),
+                sort(Sort.by(ASC, "createdAt", "_id")),
+                limit(limit));
+    }
+
+    private static AggregationOperation addSimilarity(List<String> trigrams) {
+        return context -> new Document("$addFields", new Document(SIMILARITY,
+                new Document("$divide", List.of(
+                        new Document("$size", new Document("$setIntersection", List.of("$" + SEARCH_TRIGRAMS, trigrams))),
+                        trigrams.size()))));
+    }
+
+    private static <T> List<T> content(Document result, Class<T> type, MongoConverter converter) {
+        return ((List<?>) result.get(CONTENT))
+                .stream()
+                .map(document -> converter.read(type, (Document) document))
+                .collect(Collectors.toList());
+    }
+
+    private static long total(Document result) {
+        var total = (List<?>) result.get(TOTAL);
+        return total.isEmpty() ? 0 : ((Document) total.get(0)).get(TOTAL, Number.class).longValue();
+    }
+}
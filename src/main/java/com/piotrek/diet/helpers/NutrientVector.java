@@ -0,0 +1,84 @@
+package com.piotrek.diet.helpers;
+
+import lombok.EqualsAndHashCode;
+
+import java.util.function.Function;
+
+/**
+ * The seven nutrients of a product, meal or cart item as {@link Nutrients} fixed-point values, so they can be summed and
+ * scaled together. {@link #add} accumulates in place; {@link #scale} returns a new vector.
+ */
+@EqualsAndHashCode
+public final class NutrientVector {
+
+    private static final int PROTEIN = 0;
+    private static final int CARBOHYDRATE = 1;
+    private static final int FAT = 2;
+    private static final int FIBRE = 3;
+    private static final int KCAL = 4;
+    private static final int CARBOHYDRATE_EXCHANGE = 5;
+    private static final int PROTEIN_AND_FAT_EQUIVALENT = 6;
+
+    private final long[] values = new long[7];
+
+    public static NutrientVector of(double protein, double carbohydrate, double fat, double fibre, double kcal,
+                                    double carbohydrateExchange, double proteinAndFatEquivalent) {
+        var vector = new NutrientVector();
+        vector.values[PROTEIN] = Nutrients.of(protein);
+        vector.values[CARBOHYDRATE] = Nutrients.of(carbohydrate);
+        vector.values[FAT] = Nutrients.of(fat);
+        vector.values[FIBRE] = Nutrients.of(fibre);
+        vector.values[KCAL] = Nutrients.of(kcal);
+        vector.values[CARBOHYDRATE_EXCHANGE] = Nutrients.of(carbohydrateExchange);
+        vector.values[PROTEIN_AND_FAT_EQUIVALENT] = Nutrients.of(proteinAndFatEquivalent);
+        return vector;
+    }
+
+    public static <T> NutrientVector sum(Iterable<T> elements, Function<T, NutrientVector> nutrients) {
+        var total = new NutrientVector();
+        for (T element : elements)
+            total.add(nutrients.apply(element));
+        return total;
+    }
+
+    public NutrientVector add(NutrientVector augend) {
+        for (int i = 0; i < values.length; i++)
+            values[i] = Nutrients.add(values[i], augend.values[i]);
+        return this;
+    }
+
+    public NutrientVector scale(long numerator, long denominator) {
+        var scaled = new NutrientVector();
+        for (int i = 0; i < values.length; i++)
+            scaled.values[i] = Nutrients.scale(values[i], numerator, denominator);
+        return scaled;
+    }
+
+    public double protein() {
+        return Nutrients.toDouble(values[PROTEIN]);
+    }
+
+    public double carbohydrate() {
+        return Nutrients.toDouble(values[CARBOHYDRATE]);
+    }
+
+    public double fat() {
+        return Nutrients.toDouble(values[FAT]);
+    }
+
+    public double fibre() {
+        return Nutrients.toDouble(values[FIBRE]);
+    }
+
+    public double kcal() {
+        return Nutrients.toDouble(values[KCAL]);
+    }
+
+    public double carbohydrateExchange() {
+        return Nutrients.toDouble(values[CARBOHYDRATE_EXCHANGE]);
+    }
+
+    public double proteinAndFatEquivalent() {
+        return Nutrients.toDouble(values[PROTEIN_AND_FAT_EQUIVALENT]);
+    }
+}
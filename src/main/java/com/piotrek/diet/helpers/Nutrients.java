@@ -0,0 +1,37 @@
+package com.piotrek.diet.helpers;
+
+import org.decimal4j.api.DecimalArithmetic;
+import org.decimal4j.scale.Scale4f;
+
+/**
+ * Fixed-point arithmetic for nutrient values held as unscaled {@code long}s with four decimal places, so a chain of
+ * calculations keeps its precision and doesn't allocate. {@link #toDouble} rounds to two decimal places, and is meant
+ * to be called once, when the result is stored or returned.
+ */
+public class Nutrients {
+
+    private static final DecimalArithmetic ARITHMETIC = Scale4f.INSTANCE.getDefaultArithmetic();
+    private static final int PRECISION = 2;
+
+    public static long of(double value) {
+        return ARITHMETIC.fromDouble(value);
+    }
+
+    public static long add(long value, long augend) {
+        return ARITHMETIC.add(value, augend);
+    }
+
+    /**
+     * Multiplies the value by {@code numerator / denominator}, e.g. the nutrients of 100 g by {@code amount / 100}.
+     * A zero denominator gives zero.
+     */
+    public static long scale(long value, long numerator, long denominator) {
+        if (denominator == 0)
+            return 0;
+        return ARITHMETIC.divideByLong(ARITHMETIC.multiplyByLong(value, numerator), denominator);
+    }
+
+    public static double toDouble(long value) {
+        return ARITHMETIC.toDouble(ARITHMETIC.round(value, PRECISION));
+    }
+}
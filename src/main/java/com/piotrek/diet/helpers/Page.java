@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 
 import java.util.Collection;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Getter
 @AllArgsConstructor
@@ -20,6 +22,9 @@ public class Page<T> {
     private int pageSize;
     private long totalElements;
 
+    public <R> Page<R> map(Function<T, R> converter) {
+        return new Page<>(content.stream().map(converter).collect(Collectors.toList()), pageNumber, pageSize, totalElements);
+    }
 
     @JsonProperty
     public long totalPages() {
@@ -0,0 +1,61 @@
+package com.piotrek.diet.helpers;
+
+import com.mongodb.client.result.UpdateResult;
+import com.piotrek.diet.meal.Meal;
+import com.piotrek.diet.product.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Stores {@code searchName} and {@code searchTrigrams} of products and meals saved before name search used them, so
+ * the text and fuzzy search find them too. Safe to run on every start: migrated documents no longer match.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class SearchFieldsMigration {
+
+    private static final String NAME = "name";
+    private static final String SEARCH_NAME = "searchName";
+    private static final String SEARCH_TRIGRAMS = "searchTrigrams";
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        Flux.just(mongoOperations.getCollectionName(Product.class), mongoOperations.getCollectionName(Meal.class))
+                .concatMap(this::migrate)
+                .reduce(0L, Long::sum)
+                .subscribe(count -> log.info("Stored search fields of " + count + " products and meals"),
+                        throwable -> log.error("Failed to store search fields", throwable));
+    }
+
+    private Mono<Long> migrate(String collection) {
+        var legacyDocuments = new Query(where(SEARCH_TRIGRAMS).exists(false));
+        legacyDocuments.fields().include(NAME);
+
+        return mongoOperations.find(legacyDocuments, Document.class, collection)
+                .flatMap(document -> migrate(document, collection))
+                .count();
+    }
+
+    private Mono<UpdateResult> migrate(Document document, String collection) {
+        var name = document.getString(NAME);
+        var update = new Update()
+                .set(SEARCH_NAME, TextNormalizer.normalize(name))
+                .set(SEARCH_TRIGRAMS, FuzzySearch.trigrams(name));
+        return mongoOperations.updateFirst(query(where("_id").is(document.get("_id"))), update, collection);
+    }
+}
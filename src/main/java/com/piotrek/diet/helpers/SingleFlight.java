@@ -0,0 +1,63 @@
+package com.piotrek.diet.helpers;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Shares one in-flight lookup among all concurrent callers asking for the same key. The shared {@link Mono} is
+ * dropped as soon as it terminates, so a later call (or a retry after an error) starts a fresh lookup.
+ * Every caller, including the one running the lookup, gets the value passed through the copier, so callers can
+ * modify it without affecting each other.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final UnaryOperator<V> copier;
+
+    public SingleFlight() {
+        this(UnaryOperator.identity());
+    }
+
+    public SingleFlight(UnaryOperator<V> copier) {
+        this.copier = copier;
+    }
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> lookup) {
+        return Mono.defer(() -> {
+            var existing = inFlight.get(key);
+            if (existing != null) {
+                coalescedCount.incrementAndGet();
+                return existing.map(copier);
+            }
+
+            var shared = new AtomicReference<Mono<V>>();
+            shared.set(Mono.defer(lookup)
+                    .doFinally(signal -> inFlight.remove(key, shared.get()))
+                    .cache());
+
+            existing = inFlight.putIfAbsent(key, shared.get());
+            if (existing != null) {
+                coalescedCount.incrementAndGet();
+                return existing.map(copier);
+            }
+            executedCount.incrementAndGet();
+            return shared.get().map(copier);
+        });
+    }
+
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+}
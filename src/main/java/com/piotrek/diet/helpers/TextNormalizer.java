@@ -0,0 +1,24 @@
+package com.piotrek.diet.helpers;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
+    /**
+     * Lower-cases the text, strips diacritics (including the Polish 'ł', which has no decomposition)
+     * and collapses whitespaces, so "Płatki  Kukurydziane" becomes "platki kukurydziane".
+     */
+    public static String normalize(String text) {
+        if (text == null)
+            return "";
+
+        var decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        var withoutDiacritics = DIACRITICS.matcher(decomposed).replaceAll("").replace('ł', 'l');
+        return WHITESPACES.matcher(withoutDiacritics).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,50 @@
+package com.piotrek.diet.helpers;
+
+/**
+ * Products, meals and cart items: reads and writes their seven nutrient fields together as a {@link NutrientVector}.
+ */
+public interface WithNutrients {
+
+    double getProtein();
+
+    double getCarbohydrate();
+
+    double getFat();
+
+    double getFibre();
+
+    double getKcal();
+
+    double getCarbohydrateExchange();
+
+    double getProteinAndFatEquivalent();
+
+    void setProtein(double protein);
+
+    void setCarbohydrate(double carbohydrate);
+
+    void setFat(double fat);
+
+    void setFibre(double fibre);
+
+    void setKcal(double kcal);
+
+    void setCarbohydrateExchange(double carbohydrateExchange);
+
+    void setProteinAndFatEquivalent(double proteinAndFatEquivalent);
+
+    default NutrientVector nutrients() {
+        return NutrientVector.of(getProtein(), getCarbohydrate(), getFat(), getFibre(), getKcal(),
+                getCarbohydrateExchange(), getProteinAndFatEquivalent());
+    }
+
+    default void setNutrients(NutrientVector nutrients) {
+        setProtein(nutrients.protein());
+        setCarbohydrate(nutrients.carbohydrate());
+        setFat(nutrients.fat());
+        setFibre(nutrients.fibre());
+        setKcal(nutrients.kcal());
+        setCarbohydrateExchange(nutrients.carbohydrateExchange());
+        setProteinAndFatEquivalent(nutrients.proteinAndFatEquivalent());
+    }
+}
@@ -18,6 +18,11 @@ public class MealControllerLogger {
         log.info(LOGGER_PREFIX + "Attempt find all meals [page = " + page + ", size = " + size + "]");
     }
 
+    @Before(value = "execution(* com.piotrek.diet.meal.MealController.findAllByCursor(..)) && args(cursor, size)", argNames = "cursor,size")
+    public void logBeforeFindAllMealsByCursor(String cursor, int size) {
+        log.info(LOGGER_PREFIX + "Attempt find all meals [cursor = " + cursor + ", size = " + size + "]");
+    }
+
     @Before(value = "execution(* com.piotrek.diet.meal.MealController.findById(..)) && args(id)")
     public void logBeforeFindByIdMeal(String id) {
         log.info(LOGGER_PREFIX + "Attempt to find a meal [id = " + id + "]");
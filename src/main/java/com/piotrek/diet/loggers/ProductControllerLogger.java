@@ -17,6 +17,16 @@ public class ProductControllerLogger {
         log.info(LOGGER_PREFIX + "Attempt to find all products [page = " + page + ", size = " + size + "]");
     }
 
+    @Before(value = "execution(* com.piotrek.diet.product.ProductController.findAllByCursor(..)) && args(cursor, size)", argNames = "cursor,size")
+    public void logBeforeFindAllProductsByCursor(String cursor, int size) {
+        log.info(LOGGER_PREFIX + "Attempt to find all products [cursor = " + cursor + ", size = " + size + "]");
+    }
+
+    @Before(value = "execution(* com.piotrek.diet.product.ProductController.suggest(..)) && args(prefix, limit)", argNames = "prefix,limit")
+    public void logBeforeSuggestProducts(String prefix, int limit) {
+        log.info(LOGGER_PREFIX + "Attempt to suggest products [prefix = " + prefix + ", limit = " + limit + "]");
+    }
+
     @Before(value = "execution(* com.piotrek.diet.product.ProductController.findById(..)) && args(id)")
     public void logBeforeFindByIdProduct(String id) {
         log.info(LOGGER_PREFIX + "Attempt to find a product [id = " + id + "]");
@@ -28,6 +38,12 @@ public class ProductControllerLogger {
                 page + ", size = " + size + "]");
     }
 
+    @Before(value = "execution(* com.piotrek.diet.product.ProductController.searchByNameByCursor(..)) && args(cursor, size, query)", argNames = "cursor,size,query")
+    public void logBeforeSearchByNameProductsByCursor(String cursor, int size, String query) {
+        log.info(LOGGER_PREFIX + "Attempt to search by name a product [query = " + query + ", cursor = " +
+                cursor + ", size = " + size + "]");
+    }
+
     @Before(value = "execution(* com.piotrek.diet.product.ProductController.deleteById(..)) && args(id)")
     public void logBeforeDeleteByIdProduct(String id) {
         log.info(LOGGER_PREFIX + "Attempt to delete a product [id = " + id + "]");
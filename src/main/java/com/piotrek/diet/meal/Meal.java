@@ -1,10 +1,12 @@
 package com.piotrek.diet.meal;
 
 import com.piotrek.diet.helpers.BaseEntity;
+import com.piotrek.diet.helpers.WithNutrients;
 import com.piotrek.diet.product.Product;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.validation.constraints.NotNull;
@@ -12,13 +14,14 @@ import java.io.File;
 import java.sql.Blob;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Data
 @Document
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = true, of = {})
-public class Meal extends BaseEntity {
+public class Meal extends BaseEntity implements WithNutrients {
 
     @NotNull
     private String name;
@@ -54,6 +57,15 @@ public class Meal extends BaseEntity {
 
     private AtomicLong favouriteCounter = new AtomicLong(0);
 
+    private Long revision;
+
+    private String searchName;
+
+    private Set<String> searchTrigrams;
+
+    @TextScore
+    private Float score;
+
     public Meal(String id) {
         super(id);
     }
@@ -1,5 +1,6 @@
 package com.piotrek.diet.meal;
 
+import com.piotrek.diet.helpers.CursorPage;
 import com.piotrek.diet.helpers.Page;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
@@ -27,6 +28,13 @@ public class MealController {
         return mealService.findAllPageable(PageRequest.of(page, size));
     }
 
+    @GetMapping(params = "cursor")
+    Mono<CursorPage<MealDto>> findAllByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        return mealService.findAllByCursor(cursor, size);
+    }
+
     @GetMapping("/{id}")
     Mono<MealDto> findById(@PathVariable String id) {
         return mealService.findDtoById(id);
@@ -0,0 +1,72 @@
+package com.piotrek.diet.meal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory snapshots of the home page feeds. A snapshot is reloaded on the first read after it gets older than
+ * {@code meals.feeds.max-staleness} or after a meal write invalidated it; concurrent readers share one reload.
+ */
+@Component
+class MealFeeds {
+
+    private final MealRepository mealRepository;
+    private final MealDtoConverter mealDtoConverter;
+    private final Duration maxStaleness;
+
+    private final AtomicReference<Snapshot> topFavourites = new AtomicReference<>();
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>();
+
+    MealFeeds(MealRepository mealRepository, MealDtoConverter mealDtoConverter,
+              @Value("${meals.feeds.max-staleness:PT1M}") Duration maxStaleness) {
+        this.mealRepository = mealRepository;
+        this.mealDtoConverter = mealDtoConverter;
+        this.maxStaleness = maxStaleness;
+    }
+
+    Flux<MealDto> topFavourites() {
+        return read(topFavourites, mealRepository::findFirst10ByOrderByFavouriteCounterDesc);
+    }
+
+    Flux<MealDto> latest() {
+        return read(latest, mealRepository::findFirst10ByOrderByCreatedAtDesc);
+    }
+
+    void invalidate() {
+        topFavourites.set(null);
+        latest.set(null);
+    }
+
+    private Flux<MealDto> read(AtomicReference<Snapshot> feed, Supplier<Flux<Meal>> query) {
+        return Flux.defer(() -> {
+            var snapshot = feed.updateAndGet(current -> current == null || current.isOlderThan(maxStaleness)
+                    ? new Snapshot(feed, query)
+                    : current);
+            return snapshot.meals.flatMapIterable(Function.identity());
+        });
+    }
+
+    private class Snapshot {
+
+        private final long loadedAt = System.nanoTime();
+        private final Mono<List<MealDto>> meals;
+
+        private Snapshot(AtomicReference<Snapshot> feed, Supplier<Flux<Meal>> query) {
+            meals = Mono.defer(() -> query.get().map(mealDtoConverter::toDto).collectList())
+                    .doOnError(throwable -> feed.compareAndSet(this, null))
+                    .cache();
+        }
+
+        private boolean isOlderThan(Duration staleness) {
+            return System.nanoTime() - loadedAt > staleness.toNanos();
+        }
+    }
+}
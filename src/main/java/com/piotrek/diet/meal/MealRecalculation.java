@@ -0,0 +1,109 @@
+package com.piotrek.diet.meal;
+
+import com.piotrek.diet.helpers.NutrientVector;
+import com.piotrek.diet.product.Product;
+import com.piotrek.diet.product.ProductNutrientsChanged;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Recalculates, in the background, the meals embedding a product whose nutrients were corrected. Meals are read through
+ * the {@code products._id} index and written back in bulk, setting only that product's nutrients and the meal totals,
+ * at most {@code meals.recalculation.batch-size} meals per {@code meals.recalculation.batch-interval} and
+ * {@code meals.recalculation.concurrency} batches at a time, so a popular product doesn't saturate the database. A newer
+ * correction of the same product cancels the running recalculation.
+ */
+@Slf4j
+@Component
+class MealRecalculation {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final MealRepository mealRepository;
+    private final MealService mealService;
+    private final MealFeeds mealFeeds;
+    private final int batchSize;
+    private final int concurrency;
+    private final Duration batchInterval;
+
+    private final Map<String, Disposable.Swap> running = new ConcurrentHashMap<>();
+
+    MealRecalculation(MealRepository mealRepository, MealService mealService, MealFeeds mealFeeds,
+                      @Value("${meals.recalculation.batch-size:200}") int batchSize,
+                      @Value("${meals.recalculation.concurrency:2}") int concurrency,
+                      @Value("${meals.recalculation.batch-interval:PT0.2S}") Duration batchInterval) {
+        this.mealRepository = mealRepository;
+        this.mealService = mealService;
+        this.mealFeeds = mealFeeds;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.batchInterval = batchInterval;
+    }
+
+    @EventListener
+    public void productNutrientsChanged(ProductNutrientsChanged event) {
+        var product = event.getProduct();
+        var recalculation = Disposables.swap();
+        var previous = running.put(product.getId(), recalculation);
+        if (previous != null)
+            previous.dispose();
+
+        recalculation.update(recalculate(product)
+                .doFinally(signal -> running.remove(product.getId(), recalculation))
+                .subscribe(count -> log.info("Recalculated " + count + " meals with product [id = " + product.getId() + "]"),
+                        throwable -> log.error("Failed to recalculate meals with product [id = " + product.getId() + "]", throwable)));
+    }
+
+    Mono<Long> recalculate(Product product) {
+        return mealRepository.findAllByProductsId(product.getId())
+                .buffer(batchSize)
+                .delayElements(batchInterval)
+                .flatMap(meals -> write(product, meals, 1), concurrency)
+                .reduce(0L, Long::sum)
+                .doOnSuccess(count -> mealFeeds.invalidate());
+    }
+
+    /**
+     * Meals changed while their batch was recalculated are skipped by the write; those still embedding stale nutrients
+     * are read again and written in another attempt.
+     */
+    private Mono<Long> write(Product product, List<Meal> meals, int attempt) {
+        var nutrients = product.nutrients();
+        return Mono.fromCallable(() -> mealService.recalculateMealInformation(withNutrients(meals, product.getId(), nutrients)))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(recalculated -> mealRepository.updateNutrients(product, recalculated))
+                .flatMap(written -> written == meals.size() || attempt == MAX_ATTEMPTS
+                        ? Mono.just(written)
+                        : mealRepository.findAllById(meals.stream().map(Meal::getId).collect(Collectors.toList()))
+                        .filter(meal -> embedded(meal, product.getId()).anyMatch(embedded -> !nutrients.equals(embedded.nutrients())))
+                        .collectList()
+                        .filter(stale -> !stale.isEmpty())
+                        .flatMap(stale -> write(product, stale, attempt + 1))
+                        .map(retried -> written + retried)
+                        .defaultIfEmpty(written));
+    }
+
+    private static List<Meal> withNutrients(List<Meal> meals, String productId, NutrientVector nutrients) {
+        meals.forEach(meal -> embedded(meal, productId).forEach(embedded -> embedded.setNutrients(nutrients)));
+        return meals;
+    }
+
+    private static Stream<Product> embedded(Meal meal, String productId) {
+        return meal.getProducts()
+                .stream()
+                .filter(embedded -> productId.equals(embedded.getId()));
+    }
+}
@@ -1,13 +1,28 @@
 package com.piotrek.diet.meal;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface MealRepository extends ReactiveMongoRepository<Meal, String> {
+import java.time.LocalDateTime;
 
-    Flux<Meal> findAllByUserId(String userId);
+public interface MealRepository extends ReactiveMongoRepository<Meal, String>, MealRepositoryCustom {
 
-    Flux<Meal> findAllByNameIgnoreCaseContaining(String name);
+    Flux<Meal> findAllBy(Pageable pageable);
+    Flux<Meal> findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(LocalDateTime createdAt, LocalDateTime sameCreatedAt,
+                                                                     String id, Pageable pageable);
+
+    Flux<Meal> findAllByUserId(String userId, Pageable pageable);
+    Mono<Long> countAllByUserId(String userId);
+
+    Flux<Meal> findAllByOrderByScoreDesc(TextCriteria criteria, Pageable pageable);
+    Mono<Long> countAllBy(TextCriteria criteria);
+    Flux<Meal> findAllBySearchNameStartingWithOrderBySearchName(String prefix, Pageable pageable);
+    Mono<Long> countAllBySearchNameStartingWith(String prefix);
+
+    Flux<Meal> findAllByProductsId(String productId);
 
     Flux<Meal> findFirst10ByOrderByFavouriteCounterDesc();
 
@@ -0,0 +1,26 @@
+package com.piotrek.diet.meal;
+
+import com.piotrek.diet.helpers.Page;
+import com.piotrek.diet.product.Product;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface MealRepositoryCustom {
+
+    Mono<Void> incrementFavouriteCounter(String id, long delta);
+
+    /**
+     * Sets the fields a user can edit, leaving counters maintained with {@code $inc} untouched.
+     */
+    Mono<Meal> updateDetails(Meal meal);
+
+    /**
+     * Sets the nutrients of the given product embedded in each meal, and the meal totals, skipping the meals changed
+     * since they were read. Returns the number of meals written.
+     */
+    Mono<Long> updateNutrients(Product product, List<Meal> meals);
+
+    Mono<Page<Meal>> fuzzySearchByName(String query, Pageable pageable);
+}
@@ -0,0 +1,101 @@
+package com.piotrek.diet.meal;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.piotrek.diet.helpers.FuzzySearch;
+import com.piotrek.diet.helpers.Page;
+import com.piotrek.diet.product.Product;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+class MealRepositoryImpl implements MealRepositoryCustom {
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<Void> incrementFavouriteCounter(String id, long delta) {
+        return mongoOperations.updateFirst(query(where("id").is(id)), new Update().inc("favouriteCounter", delta), Meal.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Meal> updateDetails(Meal meal) {
+        var update = totalsUpdate(meal)
+                .set("products", meal.getProducts())
+                .set("amount", meal.getAmount())
+                .set("name", meal.getName())
+                .set("description", meal.getDescription())
+                .set("recipe", meal.getRecipe())
+                .set("imageUrl", meal.getImageUrl())
+                .set("searchName", meal.getSearchName())
+                .set("searchTrigrams", meal.getSearchTrigrams());
+        return mongoOperations.findAndModify(query(where("id").is(meal.getId())), update, options().returnNew(true), Meal.class);
+    }
+
+    @Override
+    public Mono<Long> updateNutrients(Product product, List<Meal> meals) {
+        if (meals.isEmpty())
+            return Mono.just(0L);
+
+        var queryMapper = new QueryMapper(mongoOperations.getConverter());
+        var updateMapper = new UpdateMapper(mongoOperations.getConverter());
+        var entity = queryMapper.getMappingContext().getRequiredPersistentEntity(Meal.class);
+        var productId = queryMapper.getMappedObject(query(where("products.id").is(product.getId())).getQueryObject(), entity)
+                .get("products._id");
+        var options = new UpdateOptions().arrayFilters(List.of(new Document("p._id", productId)));
+        var updates = meals
+                .stream()
+                .map(meal -> new UpdateOneModel<Document>(
+                        queryMapper.getMappedObject(query(where("id").is(meal.getId()).and("revision").is(meal.getRevision())).getQueryObject(), entity),
+                        updateMapper.getMappedObject(embeddedNutrientsUpdate(totalsUpdate(meal), product).getUpdateObject(), entity),
+                        options))
+                .collect(Collectors.toList());
+
+        return Mono.from(mongoOperations.getCollection(mongoOperations.getCollectionName(Meal.class))
+                .bulkWrite(updates, new BulkWriteOptions().ordered(false)))
+                .map(result -> (long) result.getMatchedCount());
+    }
+
+    private Update totalsUpdate(Meal meal) {
+        return new Update()
+                .set("protein", meal.getProtein())
+                .set("carbohydrate", meal.getCarbohydrate())
+                .set("fat", meal.getFat())
+                .set("fibre", meal.getFibre())
+                .set("kcal", meal.getKcal())
+                .set("carbohydrateExchange", meal.getCarbohydrateExchange())
+                .set("proteinAndFatEquivalent", meal.getProteinAndFatEquivalent())
+                .inc("revision", 1);
+    }
+
+    private Update embeddedNutrientsUpdate(Update update, Product product) {
+        return update
+                .set("products.$[p].protein", product.getProtein())
+                .set("products.$[p].carbohydrate", product.getCarbohydrate())
+                .set("products.$[p].fat", product.getFat())
+                .set("products.$[p].fibre", product.getFibre())
+                .set("products.$[p].kcal", product.getKcal())
+                .set("products.$[p].carbohydrateExchange", product.getCarbohydrateExchange())
+                .set("products.$[p].proteinAndFatEquivalent", product.getProteinAndFatEquivalent());
+    }
+
+    @Override
+    public Mono<Page<Meal>> fuzzySearchByName(String query, Pageable pageable) {
+        return FuzzySearch.page(mongoOperations, Meal.class, query, pageable);
+    }
+}
@@ -2,13 +2,20 @@ package com.piotrek.diet.meal;
 
 import com.piotrek.diet.cloud.CloudStorageService;
 import com.piotrek.diet.exceptions.NotFoundException;
+import com.piotrek.diet.helpers.Cursor;
+import com.piotrek.diet.helpers.CursorPage;
+import com.piotrek.diet.helpers.FuzzySearch;
+import com.piotrek.diet.helpers.NutrientVector;
 import com.piotrek.diet.helpers.Page;
+import com.piotrek.diet.helpers.SingleFlight;
+import com.piotrek.diet.helpers.TextNormalizer;
 import com.piotrek.diet.product.Product;
 import com.piotrek.diet.product.ProductDtoConverter;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import org.decimal4j.util.DoubleRounder;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.BeanUtils;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -16,6 +23,9 @@ import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.piotrek.diet.helpers.Constants.IMAGE_CONTAINER_MEALS;
@@ -24,60 +34,76 @@ import static com.piotrek.diet.helpers.Constants.IMAGE_CONTAINER_MEALS;
 @RequiredArgsConstructor
 public class MealService {
 
+    private static final int PARALLEL_RECALCULATION_THRESHOLD = 256;
+
     private final MealRepository mealRepository;
     private final MealDtoConverter mealDtoConverter;
     private final ProductDtoConverter productDtoConverter;
-    private final DoubleRounder doubleRounder;
     private final CloudStorageService imageStorage;
+    private final MealFeeds mealFeeds;
+
+    @Getter
+    private final SingleFlight<String, Meal> findByIdFlight = new SingleFlight<>(MealService::copyOf);
 
     public Mono<Meal> findById(String id) {
-        return mealRepository.findById(id)
+        return findByIdFlight.execute(id, () -> mealRepository.findById(id))
                 .switchIfEmpty(Mono.defer(() -> Mono.error(new NotFoundException("Not found meal [id = " + id + "]"))));
     }
 
+    private static Meal copyOf(Meal meal) {
+        var copy = new Meal();
+        BeanUtils.copyProperties(meal, copy);
+        return copy;
+    }
+
     Mono<MealDto> findDtoById(String id) {
         return findById(id).map(mealDtoConverter::toDto);
     }
 
+    public Flux<Meal> findAllByIds(Collection<String> ids) {
+        return mealRepository.findAllById(ids);
+    }
+
     public Mono<Page<MealDto>> findAllByUserId(String userId, Pageable pageable) {
-        return mealRepository.findAllByUserId(userId)
-                .collectList()
-                .map(list -> new Page<>(list
-                        .stream()
-                        .skip(pageable.getPageNumber() * pageable.getPageSize())
-                        .limit(pageable.getPageSize())
-                        .map(mealDtoConverter::toDto)
-                        .collect(Collectors.toList()),
-                        pageable.getPageNumber(), pageable.getPageSize(), list.size()));
+        return pageableFlux(mealRepository.findAllByUserId(userId, pageable), mealRepository.countAllByUserId(userId), pageable);
     }
 
     Flux<MealDto> find10MostFavourites() {
-        return mealRepository.findFirst10ByOrderByFavouriteCounterDesc()
-                .map(mealDtoConverter::toDto);
+        return mealFeeds.topFavourites();
     }
 
     Flux<MealDto> find10LatestCreate() {
-        return mealRepository.findFirst10ByOrderByCreatedAtDesc()
-                .map(mealDtoConverter::toDto);
+        return mealFeeds.latest();
     }
 
     Mono<Page<MealDto>> findAllPageable(Pageable pageable) {
-        return mealRepository
-                .findAll()
+        return pageableFlux(mealRepository.findAllBy(pageable), mealRepository.count(), pageable);
+    }
+
+    Mono<CursorPage<MealDto>> findAllByCursor(String cursorValue, int size) {
+        var cursor = Cursor.decode(cursorValue);
+        var pageRequest = Cursor.pageRequest(size);
+        var pageContent = cursor.isFirst()
+                ? mealRepository.findAllBy(pageRequest)
+                : mealRepository.findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(cursor.getCreatedAt(), cursor.getCreatedAt(),
+                        cursor.getLastId(), pageRequest);
+        return pageContent
                 .collectList()
-                .map(list -> new Page<>(
-                        list
-                                .stream()
-                                .skip(pageable.getPageNumber() * pageable.getPageSize())
-                                .limit(pageable.getPageSize())
-                                .map(mealDtoConverter::toDto)
-                                .collect(Collectors.toList()),
-                        pageable.getPageNumber(), pageable.getPageSize(), list.size()));
+                .map(meals -> CursorPage.of(meals, cursor, size, mealDtoConverter::toDto));
     }
 
-    public Mono<Meal> save(Meal meal) {
+    private Mono<Page<MealDto>> pageableFlux(Flux<Meal> pageContent, Mono<Long> totalElements, Pageable pageable) {
+        return pageContent
+                .map(mealDtoConverter::toDto)
+                .collectList()
+                .zipWith(totalElements)
+                .map(tuple -> new Page<>(tuple.getT1(), pageable.getPageNumber(), pageable.getPageSize(), tuple.getT2()));
+    }
 
-        return mealRepository.save(meal);
+    public Mono<Meal> save(Meal meal) {
+        setSearchFields(meal);
+        return mealRepository.save(meal)
+                .doOnNext(saved -> mealFeeds.invalidate());
     }
 
     public Mono<Meal> save(MealDto mealDto) {
@@ -85,26 +111,44 @@ public class MealService {
         return save(meal);
     }
 
+    public Mono<Void> incrementFavouriteCounter(String id, long delta) {
+        return mealRepository.incrementFavouriteCounter(id, delta)
+                .doOnSuccess(nothing -> mealFeeds.invalidate());
+    }
+
     public Mono<Void> deleteAll() {
-        return mealRepository.deleteAll();
+        return mealRepository.deleteAll()
+                .doOnSuccess(nothing -> mealFeeds.invalidate());
     }
 
     @PreAuthorize("@mealService.findById(#id).block().getUserId().equals(principal)")
     Mono<Void> deleteById(String id) {
-        return mealRepository.deleteById(id);
+        return mealRepository.deleteById(id)
+                .doOnSuccess(nothing -> mealFeeds.invalidate());
     }
 
-    Mono<Page<MealDto>> searchByName(PageRequest pageRequest, String query) {
-        return mealRepository.findAllByNameIgnoreCaseContaining(query)
-                .collectList()
-                .map(list -> new Page<>(
-                        list
-                                .stream()
-                                .skip(pageRequest.getPageNumber() * pageRequest.getPageSize())
-                                .limit(pageRequest.getPageSize())
-                                .map(mealDtoConverter::toDto)
-                                .collect(Collectors.toList()),
-                        pageRequest.getPageNumber(), pageRequest.getPageSize(), list.size()));
+    Mono<Page<MealDto>> searchByName(Pageable pageable, String query) {
+        if (query.isBlank())
+            return findAllPageable(pageable);
+
+        var criteria = TextCriteria.forDefaultLanguage().matching(query).matching(TextNormalizer.normalize(query));
+        return mealRepository.countAllBy(criteria)
+                .flatMap(totalElements -> totalElements > 0
+                        ? pageableFlux(mealRepository.findAllByOrderByScoreDesc(criteria, pageable), Mono.just(totalElements), pageable)
+                        : prefixSearchByName(pageable, query));
+    }
+
+    private Mono<Page<MealDto>> prefixSearchByName(Pageable pageable, String query) {
+        var prefix = TextNormalizer.normalize(query);
+        return mealRepository.countAllBySearchNameStartingWith(prefix)
+                .flatMap(totalElements -> totalElements > 0
+                        ? pageableFlux(mealRepository.findAllBySearchNameStartingWithOrderBySearchName(prefix, pageable), Mono.just(totalElements), pageable)
+                        : fuzzySearchByName(pageable, query));
+    }
+
+    private Mono<Page<MealDto>> fuzzySearchByName(Pageable pageable, String query) {
+        return mealRepository.fuzzySearchByName(query, pageable)
+                .map(page -> page.map(mealDtoConverter::toDto));
     }
 
     @PreAuthorize("@mealService.findById(#mealId).block().getUserId().equals(principal)")
@@ -115,9 +159,16 @@ public class MealService {
         uploadImageAndSetImageUrl(mealDto, meal);
         meal.setDescription(mealDto.getDescription());
         meal.setProducts(productDtoConverter.listFromDto(mealDto.getProducts()));
-        var calculatedProductList = createCalculatedProductList(meal.getProducts());
-        calculateMealInformation(meal, calculatedProductList);
-        return save(meal).map(mealDtoConverter::toDto);
+        recalculateMealInformation(meal);
+        setSearchFields(meal);
+        return mealRepository.updateDetails(meal)
+                .doOnNext(updated -> mealFeeds.invalidate())
+                .map(mealDtoConverter::toDto);
+    }
+
+    private void setSearchFields(Meal meal) {
+        meal.setSearchName(TextNormalizer.normalize(meal.getName()));
+        meal.setSearchTrigrams(FuzzySearch.trigrams(meal.getName()));
     }
 
     private void uploadImageAndSetImageUrl(MealDto mealDto, Meal meal) {
@@ -128,114 +179,66 @@ public class MealService {
     }
 
     public ArrayList<Product> createCalculatedProductList(ArrayList<Product> products) {
-        ArrayList<Product> listOfProducts = new ArrayList<>(products.size());
+        return createCalculatedProductList(products, 100);
+    }
 
-        double allProductsAmount = products
-                .stream()
-                .mapToDouble(Product::getAmount)
-                .sum();
+    /**
+     * Copies of the products with the nutrients they contribute to the given portion (in grams) of the meal.
+     */
+    public ArrayList<Product> createCalculatedProductList(ArrayList<Product> products, int portion) {
+        ArrayList<Product> listOfProducts = new ArrayList<>(products.size());
+        var contributions = contributions(products, portion);
 
-        products.forEach(product -> {
+        for (int i = 0; i < products.size(); i++) {
+            var product = products.get(i);
             var productCopy = new Product();
-            var divider = product.getAmount() / (allProductsAmount / 100) / 100;
             productCopy.setId(product.getId());
             productCopy.setName(product.getName());
             productCopy.setAmount(product.getAmount());
             productCopy.setImageUrl(product.getImageUrl());
             productCopy.setUserId(product.getUserId());
             productCopy.setDescription(product.getDescription());
-            productCopy.setProtein(doubleRounder.round((product.getProtein() * divider)));
-            productCopy.setCarbohydrate(doubleRounder.round((product.getCarbohydrate() * divider)));
-            productCopy.setFat(doubleRounder.round((product.getFat() * divider)));
-            productCopy.setFibre(doubleRounder.round((product.getFibre() * divider)));
-            productCopy.setProteinAndFatEquivalent(doubleRounder.round((product.getProteinAndFatEquivalent() * divider)));
-            productCopy.setCarbohydrateExchange(doubleRounder.round((product.getCarbohydrateExchange() * divider)));
-            productCopy.setKcal(doubleRounder.round((product.getKcal() * divider)));
+            productCopy.setNutrients(contributions.get(i));
             listOfProducts.add(productCopy);
-        });
+        }
         return listOfProducts;
     }
 
-    public void calculateMealInformation(Meal meal, ArrayList<Product> products) {
-        calculateProtein(meal, products);
-        calculateCarbohydrate(meal, products);
-        calculateFat(meal, products);
-        calculateFibre(meal, products);
-        calculateCarbohydrateExchange(meal, products);
-        calculateProteinAndFatEquivalent(meal, products);
-        calculateKcal(meal, products);
-        calculateAmount(meal, products);
-    }
-
-    private void calculateAmount(Meal meal, ArrayList<Product> products) {
-        int amountValue = products
+    public void recalculateMealInformation(Meal meal) {
+        calculatePortionNutrients(meal, 100);
+        meal.setAmount(meal.getProducts()
                 .stream()
                 .mapToInt(Product::getAmount)
-                .sum();
-
-        meal.setAmount(amountValue);
-    }
-
-    private void calculateProtein(Meal meal, ArrayList<Product> products) {
-        var proteinValue = products
-                .stream()
-                .mapToDouble(Product::getProtein)
-                .sum();
-
-        meal.setProtein(doubleRounder.round(proteinValue));
-    }
-
-    private void calculateFibre(Meal meal, ArrayList<Product> products) {
-        var fibreValue = products
-                .stream()
-                .mapToDouble(Product::getFibre)
-                .sum();
-
-        meal.setFibre(doubleRounder.round(fibreValue));
+                .sum());
     }
 
-    private void calculateFat(Meal meal, ArrayList<Product> products) {
-        var fatValue = products
-                .stream()
-                .mapToDouble(Product::getFat)
-                .sum();
-
-        meal.setFat(doubleRounder.round(fatValue));
+    /**
+     * Recalculates many meals from their products, e.g. after a product was corrected. Large batches are split across
+     * the common fork-join pool, so call it off the event loop.
+     */
+    public List<Meal> recalculateMealInformation(List<Meal> meals) {
+        var stream = meals.size() < PARALLEL_RECALCULATION_THRESHOLD ? meals.stream() : meals.parallelStream();
+        stream.forEach(this::recalculateMealInformation);
+        return meals;
     }
 
-    private void calculateCarbohydrate(Meal meal, ArrayList<Product> products) {
-        var carbohydrateValue = products
-                .stream()
-                .mapToDouble(Product::getCarbohydrate)
-                .sum();
-
-        meal.setCarbohydrate(doubleRounder.round(carbohydrateValue));
+    /**
+     * Sets the meal nutrients to those of the given portion (in grams), summed from the unrounded contributions of its
+     * products, so they are rounded once.
+     */
+    public void calculatePortionNutrients(Meal meal, int portion) {
+        meal.setNutrients(NutrientVector.sum(contributions(meal.getProducts(), portion), Function.identity()));
     }
 
-    private void calculateProteinAndFatEquivalent(Meal meal, ArrayList<Product> products) {
-        var proteinAndFatEquivalentValue = products
+    private static List<NutrientVector> contributions(List<Product> products, int portion) {
+        long allProductsAmount = products
                 .stream()
-                .mapToDouble(Product::getProteinAndFatEquivalent)
+                .mapToLong(Product::getAmount)
                 .sum();
 
-        meal.setProteinAndFatEquivalent(doubleRounder.round(proteinAndFatEquivalentValue));
-    }
-
-    private void calculateCarbohydrateExchange(Meal meal, ArrayList<Product> products) {
-        var carbohydrateExchangeValue = products
+        return products
                 .stream()
-                .mapToDouble(Product::getCarbohydrateExchange)
-                .sum();
-
-        meal.setCarbohydrateExchange(doubleRounder.round(carbohydrateExchangeValue));
-    }
-
-    private void calculateKcal(Meal meal, ArrayList<Product> products) {
-        double kcalValue = products
-                .stream()
-                .mapToDouble(Product::getKcal)
-                .sum();
-
-        meal.setKcal(doubleRounder.round(kcalValue));
+                .map(product -> product.nutrients().scale((long) product.getAmount() * portion, allProductsAmount * 100))
+                .collect(Collectors.toList());
     }
 }
@@ -1,16 +1,19 @@
 package com.piotrek.diet.product;
 
 import com.piotrek.diet.helpers.BaseEntity;
+import com.piotrek.diet.helpers.WithNutrients;
 import lombok.*;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import javax.validation.constraints.NotNull;
+import java.util.Set;
 
 @Data
 @Document
 @NoArgsConstructor
 @EqualsAndHashCode(callSuper = true, of = {})
-public class Product extends BaseEntity {
+public class Product extends BaseEntity implements WithNutrients {
 
     @NotNull
     private String name;
@@ -47,6 +50,15 @@ public class Product extends BaseEntity {
     @NotNull
     private String userId;
 
+    private long cartCounter;
+
+    private String searchName;
+
+    private Set<String> searchTrigrams;
+
+    @TextScore
+    private Float score;
+
     public Product(String id) {
         super(id);
     }
@@ -1,9 +1,11 @@
 package com.piotrek.diet.product;
 
+import com.piotrek.diet.helpers.CursorPage;
 import com.piotrek.diet.helpers.Page;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
@@ -18,6 +20,8 @@ import static org.springframework.http.HttpStatus.OK;
 @RequiredArgsConstructor
 public class ProductController {
 
+    private static final String DEFAULT_SUGGESTIONS_LIMIT = "10";
+
     private final ProductService productService;
 
     @GetMapping
@@ -27,6 +31,20 @@ public class ProductController {
         return productService.findAllPageable(PageRequest.of(page, size));
     }
 
+    @GetMapping(params = "cursor")
+    Mono<CursorPage<ProductDto>> findAllByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        return productService.findAllByCursor(cursor, size);
+    }
+
+    @GetMapping("/suggest")
+    Flux<ProductSuggestion> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = DEFAULT_SUGGESTIONS_LIMIT) int limit) {
+        return productService.suggest(prefix, limit);
+    }
+
     @GetMapping("/{id}")
     Mono<ProductDto> findById(@PathVariable String id) {
         return productService.findDtoById(id);
@@ -40,6 +58,14 @@ public class ProductController {
         return productService.searchByName(PageRequest.of(page, size), query);
     }
 
+    @GetMapping(value = "/search", params = "cursor")
+    Mono<CursorPage<ProductDto>> searchByNameByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = "") String query) {
+        return productService.searchByNameByCursor(cursor, size, query);
+    }
+
     @PutMapping("/{id}")
     Mono<ProductDto> updateProduct(@PathVariable String id, @Valid ProductDto productUpdate) {
         return productService.updateProduct(id, productUpdate);
@@ -0,0 +1,16 @@
+package com.piotrek.diet.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published after an updated product was saved with different nutrients, so the copies embedded elsewhere can follow.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ProductNutrientsChanged {
+
+    private final Product product;
+}
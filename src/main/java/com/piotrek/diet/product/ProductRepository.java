@@ -1,10 +1,31 @@
 package com.piotrek.diet.product;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-public interface ProductRepository extends ReactiveMongoRepository<Product, String> {
+import java.time.LocalDateTime;
 
-    Flux<Product> findAllByUserId(String userId);
-    Flux<Product> findAllByNameIgnoreCaseContaining(String name);
+public interface ProductRepository extends ReactiveMongoRepository<Product, String>, ProductRepositoryCustom {
+
+    Flux<Product> findAllBy(Pageable pageable);
+    Flux<Product> findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(LocalDateTime createdAt, LocalDateTime sameCreatedAt,
+                                                                     String id, Pageable pageable);
+
+    Flux<Product> findAllByUserId(String userId, Pageable pageable);
+    Mono<Long> countAllByUserId(String userId);
+
+    Flux<Product> findAllByOrderByScoreDesc(TextCriteria criteria, Pageable pageable);
+    Mono<Long> countAllBy(TextCriteria criteria);
+    Flux<Product> findAllBySearchNameStartingWithOrderBySearchName(String prefix, Pageable pageable);
+    Mono<Long> countAllBySearchNameStartingWith(String prefix);
+    Flux<Product> findAllBySearchNameStartingWith(String prefix, Pageable pageable);
+    Flux<Product> findAllBySearchNameStartingWithAndCreatedAtGreaterThanOrSearchNameStartingWithAndCreatedAtAndIdGreaterThan(
+            String prefix, LocalDateTime createdAt, String samePrefix, LocalDateTime sameCreatedAt, String id, Pageable pageable);
+    Flux<Product> findAllBy(TextCriteria criteria, Pageable pageable);
+    Flux<Product> findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(TextCriteria criteria, LocalDateTime createdAt,
+                                                                           LocalDateTime sameCreatedAt, String id,
+                                                                           Pageable pageable);
 }
@@ -0,0 +1,21 @@
+package com.piotrek.diet.product;
+
+import com.piotrek.diet.helpers.Cursor;
+import com.piotrek.diet.helpers.Page;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ProductRepositoryCustom {
+
+    Mono<Void> incrementCartCounter(String id);
+
+    /**
+     * Sets the fields a user can edit, leaving the cart counter maintained with {@code $inc} untouched.
+     */
+    Mono<Product> updateDetails(Product product);
+
+    Mono<Page<Product>> fuzzySearchByName(String query, Pageable pageable);
+
+    Flux<Product> fuzzySearchByName(String query, Cursor cursor, Pageable pageRequest);
+}
@@ -0,0 +1,56 @@
+package com.piotrek.diet.product;
+
+import com.piotrek.diet.helpers.Cursor;
+import com.piotrek.diet.helpers.FuzzySearch;
+import com.piotrek.diet.helpers.Page;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<Void> incrementCartCounter(String id) {
+        return mongoOperations.updateFirst(query(where("id").is(id)), new Update().inc("cartCounter", 1), Product.class)
+                .then();
+    }
+
+    @Override
+    public Mono<Product> updateDetails(Product product) {
+        var update = new Update()
+                .set("name", product.getName())
+                .set("description", product.getDescription())
+                .set("imageUrl", product.getImageUrl())
+                .set("protein", product.getProtein())
+                .set("carbohydrate", product.getCarbohydrate())
+                .set("fat", product.getFat())
+                .set("fibre", product.getFibre())
+                .set("kcal", product.getKcal())
+                .set("carbohydrateExchange", product.getCarbohydrateExchange())
+                .set("proteinAndFatEquivalent", product.getProteinAndFatEquivalent())
+                .set("amount", product.getAmount())
+                .set("searchName", product.getSearchName())
+                .set("searchTrigrams", product.getSearchTrigrams());
+        return mongoOperations.findAndModify(query(where("id").is(product.getId())), update, options().returnNew(true), Product.class);
+    }
+
+    @Override
+    public Mono<Page<Product>> fuzzySearchByName(String query, Pageable pageable) {
+        return FuzzySearch.page(mongoOperations, Product.class, query, pageable);
+    }
+
+    @Override
+    public Flux<Product> fuzzySearchByName(String query, Cursor cursor, Pageable pageRequest) {
+        return FuzzySearch.afterCursor(mongoOperations, Product.class, query, cursor, pageRequest);
+    }
+}
@@ -1,19 +1,28 @@
 package com.piotrek.diet.product;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.piotrek.diet.cloud.CloudStorageService;
 import com.piotrek.diet.exceptions.NotFoundException;
+import com.piotrek.diet.helpers.Cursor;
+import com.piotrek.diet.helpers.CursorPage;
+import com.piotrek.diet.helpers.FuzzySearch;
 import com.piotrek.diet.helpers.Page;
+import com.piotrek.diet.helpers.SingleFlight;
+import com.piotrek.diet.helpers.TextNormalizer;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.decimal4j.util.DoubleRounder;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
-import java.util.stream.Collectors;
+import java.util.Collection;
 
 import static com.piotrek.diet.helpers.Constants.IMAGE_CONTAINER_PRODUCTS;
 
@@ -25,47 +34,153 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final ProductDtoConverter productDtoConverter;
     private final DiabetesCalculator diabetesCalculator;
-    private final DoubleRounder doubleRounder;
     private final CloudStorageService imageStorage;
+    private final ProductSuggester productSuggester;
+    private final Cache<String, Product> productCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Getter
+    private final SingleFlight<String, Product> findByIdFlight = new SingleFlight<>();
 
     public Mono<Product> findById(String id) {
-        return productRepository.findById(id)
+        return Mono.defer(() -> Mono.justOrEmpty(productCache.getIfPresent(id)))
+                .switchIfEmpty(findByIdFlight.execute(id, () -> productRepository.findById(id)
+                        .doOnNext(product -> productCache.put(id, product))))
+                .map(this::copyOf)
                 .switchIfEmpty(Mono.defer(() -> Mono.error(new NotFoundException("Not found product [id = " + id + "]"))));
     }
 
+    private Product copyOf(Product product) {
+        var copy = new Product();
+        BeanUtils.copyProperties(product, copy);
+        return copy;
+    }
+
+    public Flux<Product> findAllByIds(Collection<String> ids) {
+        return productRepository.findAllById(ids);
+    }
+
     Mono<ProductDto> findDtoById(String id) {
         return findById(id)
                 .map(productDtoConverter::toDto);
     }
 
+    Flux<ProductSuggestion> suggest(String prefix, int limit) {
+        return Flux.fromIterable(productSuggester.suggest(prefix, limit));
+    }
+
     Mono<Page<ProductDto>> searchByName(Pageable pageable, String query) {
-        return pageableFlux(productRepository.findAllByNameIgnoreCaseContaining(query), pageable);
+        if (query.isBlank())
+            return findAllPageable(pageable);
+
+        var criteria = textCriteria(query);
+        return productRepository.countAllBy(criteria)
+                .flatMap(totalElements -> totalElements > 0
+                        ? pageableFlux(productRepository.findAllByOrderByScoreDesc(criteria, pageable), Mono.just(totalElements), pageable)
+                        : prefixSearchByName(pageable, query));
+    }
+
+    /**
+     * Serves the partial words typed into the search box, which the text index doesn't match ("chle" -> "Chleb").
+     */
+    private Mono<Page<ProductDto>> prefixSearchByName(Pageable pageable, String query) {
+        var prefix = TextNormalizer.normalize(query);
+        return productRepository.countAllBySearchNameStartingWith(prefix)
+                .flatMap(totalElements -> totalElements > 0
+                        ? pageableFlux(productRepository.findAllBySearchNameStartingWithOrderBySearchName(prefix, pageable), Mono.just(totalElements), pageable)
+                        : fuzzySearchByName(pageable, query));
+    }
+
+    private Mono<Page<ProductDto>> fuzzySearchByName(Pageable pageable, String query) {
+        return productRepository.fuzzySearchByName(query, pageable)
+                .map(page -> page.map(productDtoConverter::toDto));
+    }
+
+    private TextCriteria textCriteria(String query) {
+        return TextCriteria.forDefaultLanguage().matching(query).matching(TextNormalizer.normalize(query));
+    }
+
+    Mono<CursorPage<ProductDto>> searchByNameByCursor(String cursorValue, int size, String query) {
+        if (query.isBlank())
+            return findAllByCursor(cursorValue, size);
+
+        var cursor = Cursor.decode(cursorValue);
+        var pageRequest = Cursor.pageRequest(size);
+        var criteria = textCriteria(query);
+        var pageContent = productRepository.countAllBy(criteria)
+                .flatMapMany(totalElements -> totalElements > 0
+                        ? textSearchByName(criteria, cursor, pageRequest)
+                        : prefixSearchByName(query, cursor, pageRequest));
+        return cursorPageFlux(pageContent, cursor, size);
+    }
+
+    private Flux<Product> textSearchByName(TextCriteria criteria, Cursor cursor, Pageable pageRequest) {
+        return cursor.isFirst()
+                ? productRepository.findAllBy(criteria, pageRequest)
+                : productRepository.findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(criteria, cursor.getCreatedAt(),
+                        cursor.getCreatedAt(), cursor.getLastId(), pageRequest);
+    }
+
+    /**
+     * The fallbacks of {@link #searchByName}, so partial words and typos find the same products on every page.
+     */
+    private Flux<Product> prefixSearchByName(String query, Cursor cursor, Pageable pageRequest) {
+        var prefix = TextNormalizer.normalize(query);
+        return productRepository.countAllBySearchNameStartingWith(prefix)
+                .flatMapMany(totalElements -> {
+                    if (totalElements == 0)
+                        return productRepository.fuzzySearchByName(query, cursor, pageRequest);
+                    return cursor.isFirst()
+                            ? productRepository.findAllBySearchNameStartingWith(prefix, pageRequest)
+                            : productRepository.findAllBySearchNameStartingWithAndCreatedAtGreaterThanOrSearchNameStartingWithAndCreatedAtAndIdGreaterThan(
+                                    prefix, cursor.getCreatedAt(), prefix, cursor.getCreatedAt(), cursor.getLastId(), pageRequest);
+                });
     }
 
     @PreAuthorize("@productService.findById(#id).block().getUserId().equals(principal)")
     Mono<ProductDto> updateProduct(String id, ProductDto productUpdate) {
         return findById(id)
-                .doOnNext(product -> product.setName(productUpdate.getName()))
-                .doOnNext(product -> product.setDescription(productUpdate.getDescription()))
-                .doOnNext(product -> product.setDescription(productUpdate.getDescription()))
-                .doOnNext(product -> {
-                    if (productUpdate.getImageToSave() != null) {
-                        var url = imageStorage.uploadImageBlob(IMAGE_CONTAINER_PRODUCTS, productUpdate.getId(), productUpdate.getImageToSave());
-                        product.setImageUrl(url + "#" + LocalDateTime.now());
-                    }
-                })
-                .doOnNext(product -> product.setProtein(productUpdate.getProtein()))
-                .doOnNext(product -> product.setCarbohydrate(productUpdate.getCarbohydrate()))
-                .doOnNext(product -> product.setFat(productUpdate.getFat()))
-                .doOnNext(product -> product.setFibre(productUpdate.getFibre()))
-                .doOnNext(product -> product.setKcal(productUpdate.getKcal()))
-                .flatMap(this::save);
+                .flatMap(product -> {
+                    var previousNutrients = product.nutrients();
+                    return Mono.just(product)
+                            .doOnNext(p -> p.setName(productUpdate.getName()))
+                            .doOnNext(p -> p.setDescription(productUpdate.getDescription()))
+                            .doOnNext(p -> {
+                                if (productUpdate.getImageToSave() != null) {
+                                    var url = imageStorage.uploadImageBlob(IMAGE_CONTAINER_PRODUCTS, productUpdate.getId(), productUpdate.getImageToSave());
+                                    p.setImageUrl(url + "#" + LocalDateTime.now());
+                                }
+                            })
+                            .doOnNext(p -> p.setProtein(productUpdate.getProtein()))
+                            .doOnNext(p -> p.setCarbohydrate(productUpdate.getCarbohydrate()))
+                            .doOnNext(p -> p.setFat(productUpdate.getFat()))
+                            .doOnNext(p -> p.setFibre(productUpdate.getFibre()))
+                            .doOnNext(p -> p.setKcal(productUpdate.getKcal()))
+                            .doOnNext(this::calculateStoredFields)
+                            .flatMap(productRepository::updateDetails)
+                            .doOnNext(updated -> productCache.invalidate(updated.getId()))
+                            .doOnNext(productSuggester::put)
+                            .map(productDtoConverter::toDto)
+                            .doOnNext(updated -> {
+                                if (!product.nutrients().equals(previousNutrients))
+                                    eventPublisher.publishEvent(new ProductNutrientsChanged(product));
+                            });
+                });
     }
 
 
     Mono<Page<ProductDto>> findAllPageable(Pageable pageable) {
-        return pageableFlux(productRepository.findAll(), pageable);
+        return pageableFlux(productRepository.findAllBy(pageable), productRepository.count(), pageable);
+    }
 
+    Mono<CursorPage<ProductDto>> findAllByCursor(String cursorValue, int size) {
+        var cursor = Cursor.decode(cursorValue);
+        var pageRequest = Cursor.pageRequest(size);
+        var pageContent = cursor.isFirst()
+                ? productRepository.findAllBy(pageRequest)
+                : productRepository.findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(cursor.getCreatedAt(), cursor.getCreatedAt(),
+                        cursor.getLastId(), pageRequest);
+        return cursorPageFlux(pageContent, cursor, size);
     }
 
     public Flux<Product> findAll(long skipNumber, int limitNumber) {
@@ -73,22 +188,33 @@ public class ProductService {
     }
 
     public Mono<Page<ProductDto>> findAllByUserPageable(String userId, Pageable pageable) {
-        return pageableFlux(productRepository.findAllByUserId(userId), pageable);
+        return pageableFlux(productRepository.findAllByUserId(userId, pageable),
+                productRepository.countAllByUserId(userId), pageable);
+    }
+
+    private Mono<Page<ProductDto>> pageableFlux(Flux<Product> pageContent, Mono<Long> totalElements, Pageable pageable) {
+        return pageContent
+                .map(productDtoConverter::toDto)
+                .collectList()
+                .zipWith(totalElements)
+                .map(tuple -> new Page<>(tuple.getT1(), pageable.getPageNumber(), pageable.getPageSize(), tuple.getT2()));
     }
 
-    private Mono<Page<ProductDto>> pageableFlux(Flux<Product> flux, Pageable pageable) {
-        return flux
+    private Mono<CursorPage<ProductDto>> cursorPageFlux(Flux<Product> pageContent, Cursor cursor, int size) {
+        return pageContent
                 .collectList()
-                .map(list -> new Page<>(list
-                        .stream()
-                        .skip(pageable.getPageNumber() * pageable.getPageSize())
-                        .limit(pageable.getPageSize())
-                        .map(productDtoConverter::toDto)
-                        .collect(Collectors.toList()),
-                        pageable.getPageNumber(), pageable.getPageSize(), list.size()));
+                .map(products -> CursorPage.of(products, cursor, size, productDtoConverter::toDto));
     }
 
     public Mono<ProductDto> save(Product product) {
+        calculateStoredFields(product);
+        return productRepository.save(product)
+                .doOnNext(saved -> productCache.invalidate(saved.getId()))
+                .doOnNext(productSuggester::put)
+                .map(productDtoConverter::toDto);
+    }
+
+    private void calculateStoredFields(Product product) {
         var carbohydrateExchange = diabetesCalculator.calculateCarbohydrateExchange(product.getCarbohydrate(), product.getFibre());
         product.setCarbohydrateExchange(carbohydrateExchange);
 
@@ -96,8 +222,8 @@ public class ProductService {
         product.setProteinAndFatEquivalent(proteinAndFatEquivalent);
 
         product.setAmount(100);
-
-        return productRepository.save(product).map(productDtoConverter::toDto);
+        product.setSearchName(TextNormalizer.normalize(product.getName()));
+        product.setSearchTrigrams(FuzzySearch.trigrams(product.getName()));
     }
 
     public Mono<ProductDto> save(ProductDto productDto) {
@@ -106,24 +232,25 @@ public class ProductService {
 
     @PreAuthorize("@productService.findById(#id).block().getUserId().equals(principal)")
     Mono<Void> deleteById(String id) {
-        return productRepository.deleteById(id);
+        return productRepository.deleteById(id)
+                .doOnSuccess(nothing -> productCache.invalidate(id))
+                .doOnSuccess(nothing -> productSuggester.remove(id));
     }
 
     public Mono<Void> deleteAll() {
-        return productRepository.deleteAll();
+        return productRepository.deleteAll()
+                .doOnSuccess(nothing -> productCache.invalidateAll())
+                .doOnSuccess(nothing -> productSuggester.clear());
     }
 
-    public Product calculateProductInfoByAmount(Product product) {
-        double divider = (double) product.getAmount() / 100;
+    public Mono<Void> incrementCartCounter(String id) {
+        return productRepository.incrementCartCounter(id)
+                .doOnSuccess(nothing -> productSuggester.incrementPopularity(id));
+    }
 
+    public Product calculateProductInfoByAmount(Product product) {
         var calculatedProduct = new Product();
-        calculatedProduct.setProtein(doubleRounder.round(product.getProtein() * divider));
-        calculatedProduct.setCarbohydrate(doubleRounder.round(product.getCarbohydrate() * divider));
-        calculatedProduct.setFat(doubleRounder.round(product.getFat() * divider));
-        calculatedProduct.setFibre(doubleRounder.round(product.getFibre() * divider));
-        calculatedProduct.setKcal(doubleRounder.round(product.getKcal() * divider));
-        calculatedProduct.setCarbohydrateExchange(doubleRounder.round(product.getCarbohydrateExchange() * divider));
-        calculatedProduct.setProteinAndFatEquivalent(doubleRounder.round(product.getProteinAndFatEquivalent() * divider));
+        calculatedProduct.setNutrients(product.nutrients().scale(product.getAmount(), 100));
         calculatedProduct.setAmount(product.getAmount());
         calculatedProduct.setUserId(product.getUserId());
         calculatedProduct.setId(product.getId());
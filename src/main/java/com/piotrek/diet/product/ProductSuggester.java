@@ -0,0 +1,183 @@
+package com.piotrek.diet.product;
+
+import com.piotrek.diet.helpers.TextNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory prefix index of product names used for type-ahead suggestions. Every product is indexed under
+ * at most {@link #MAX_WORDS} normalised keys (one per word start, each cut to {@link #MAX_KEY_LENGTH} characters),
+ * so a "corn" prefix finds "Płatki kukurydziane Corn Flakes" and the memory held per product stays bounded.
+ * The first keystrokes match a large part of the index, so the {@link #MAX_SUGGESTIONS} best suggestions for prefixes
+ * up to {@link #SHORT_PREFIX_LENGTH} characters are kept ranked, computed on first use and dropped when a product
+ * matching them is put or removed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSuggester {
+
+    static final int MAX_WORDS = 4;
+    static final int MAX_KEY_LENGTH = 32;
+    static final int MAX_NAME_LENGTH = 64;
+    static final int MAX_SUGGESTIONS = 20;
+    static final int SHORT_PREFIX_LENGTH = 3;
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final Comparator<ProductSuggestion> RANKING = Comparator
+            .comparingLong(ProductSuggestion::getPopularity).reversed()
+            .thenComparing(ProductSuggestion::getName);
+
+    private final ProductRepository productRepository;
+
+    private final NavigableMap<String, Entry> index = new ConcurrentSkipListMap<>();
+    private final Map<String, Entry> entriesById = new ConcurrentHashMap<>();
+    private final Map<String, List<ProductSuggestion>> topByShortPrefix = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        productRepository.findAll()
+                .subscribe(this::put, throwable -> log.error("Failed to load product suggestions", throwable));
+    }
+
+    List<ProductSuggestion> suggest(String prefix, int limit) {
+        var key = truncate(TextNormalizer.normalize(prefix), MAX_KEY_LENGTH);
+        if (key.isEmpty() || limit <= 0)
+            return List.of();
+
+        var size = Math.min(limit, MAX_SUGGESTIONS);
+        if (key.length() > SHORT_PREFIX_LENGTH)
+            return scan(key, size);
+
+        var top = topByShortPrefix.get(key);
+        if (top == null)
+            top = computeTop(key);
+        return top.subList(0, Math.min(size, top.size()));
+    }
+
+    private synchronized List<ProductSuggestion> computeTop(String shortPrefix) {
+        return topByShortPrefix.computeIfAbsent(shortPrefix, key -> List.copyOf(scan(key, MAX_SUGGESTIONS)));
+    }
+
+    private List<ProductSuggestion> scan(String key, int limit) {
+        var seenIds = new HashSet<String>();
+        var worstFirst = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (var entry : index.subMap(key, key + Character.MAX_VALUE).values()) {
+            if (!seenIds.add(entry.id))
+                continue;
+            worstFirst.offer(entry.toSuggestion());
+            if (worstFirst.size() > limit)
+                worstFirst.poll();
+        }
+
+        var suggestions = new ArrayList<>(worstFirst);
+        suggestions.sort(RANKING);
+        return suggestions;
+    }
+
+    synchronized void put(Product product) {
+        var previous = entriesById.get(product.getId());
+        var popularity = Math.max(product.getCartCounter(), previous == null ? 0 : previous.popularity.get());
+        var entry = new Entry(product.getId(), truncate(product.getName(), MAX_NAME_LENGTH), keys(product), popularity);
+
+        if (previous != null) {
+            previous.keys.forEach(index::remove);
+            dropTops(previous);
+        }
+        entriesById.put(entry.id, entry);
+        entry.keys.forEach(key -> index.put(key, entry));
+        dropTops(entry);
+    }
+
+    synchronized void remove(String id) {
+        var previous = entriesById.remove(id);
+        if (previous != null) {
+            previous.keys.forEach(index::remove);
+            dropTops(previous);
+        }
+    }
+
+    synchronized void clear() {
+        entriesById.clear();
+        index.clear();
+        topByShortPrefix.clear();
+    }
+
+    /**
+     * Popularity only grows, so the kept suggestions stay valid: the product is re-ranked within them, or enters them
+     * when it now outranks the last one.
+     */
+    void incrementPopularity(String id) {
+        var entry = entriesById.get(id);
+        if (entry == null)
+            return;
+
+        entry.popularity.incrementAndGet();
+        shortPrefixes(entry).forEach(shortPrefix -> topByShortPrefix.computeIfPresent(shortPrefix,
+                (key, top) -> entriesById.get(id) == entry ? promote(top, entry) : top));
+    }
+
+    private static List<ProductSuggestion> promote(List<ProductSuggestion> top, Entry entry) {
+        var suggestion = entry.toSuggestion();
+        var promoted = new ArrayList<ProductSuggestion>(top.size() + 1);
+        top.stream()
+                .filter(other -> !other.getId().equals(entry.id))
+                .forEach(promoted::add);
+        promoted.add(suggestion);
+        promoted.sort(RANKING);
+        return List.copyOf(promoted.subList(0, Math.min(promoted.size(), MAX_SUGGESTIONS)));
+    }
+
+    private void dropTops(Entry entry) {
+        shortPrefixes(entry).forEach(topByShortPrefix::remove);
+    }
+
+    private static Set<String> shortPrefixes(Entry entry) {
+        var shortPrefixes = new HashSet<String>();
+        for (var key : entry.keys) {
+            var name = key.substring(0, key.indexOf(KEY_SEPARATOR));
+            for (int length = 1; length <= Math.min(SHORT_PREFIX_LENGTH, name.length()); length++)
+                shortPrefixes.add(name.substring(0, length));
+        }
+        return shortPrefixes;
+    }
+
+    private List<String> keys(Product product) {
+        var words = TextNormalizer.normalize(product.getName()).split(" ");
+        var keys = new ArrayList<String>(MAX_WORDS);
+        for (int i = 0; i < words.length && keys.size() < MAX_WORDS; i++) {
+            var suffix = String.join(" ", Arrays.asList(words).subList(i, words.length));
+            if (!suffix.isEmpty())
+                keys.add(truncate(suffix, MAX_KEY_LENGTH) + KEY_SEPARATOR + product.getId());
+        }
+        return keys;
+    }
+
+    private static String truncate(String text, int maxLength) {
+        return text.length() > maxLength ? text.substring(0, maxLength) : text;
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+
+        private final String id;
+        private final String name;
+        private final List<String> keys;
+        private final AtomicLong popularity;
+
+        Entry(String id, String name, List<String> keys, long popularity) {
+            this(id, name, keys, new AtomicLong(popularity));
+        }
+
+        ProductSuggestion toSuggestion() {
+            return new ProductSuggestion(id, name, popularity.get());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.piotrek.diet.product;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class ProductSuggestion {
+
+    private final String id;
+    private final String name;
+    private final long popularity;
+}
@@ -0,0 +1,77 @@
+package com.piotrek.diet.security.filter;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.piotrek.diet.security.token.TokenService;
+import com.piotrek.diet.security.token.VerifiedTokenCache;
+import com.piotrek.diet.user.UserIdentity;
+import com.piotrek.diet.user.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Authenticates the JWT passed as credentials: a signed, not expired token that is still the current token of an
+ * existing user. Completes empty instead of failing for a rejected token, so the request goes on unauthenticated.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final TokenService tokenService;
+    private final UserService userService;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        return Mono.justOrEmpty(authentication.getCredentials())
+                .map(Object::toString)
+                .flatMap(this::findTokenOwner)
+                .map(this::authenticationOf);
+    }
+
+    private Mono<UserIdentity> findTokenOwner(String tokenValue) {
+        var verified = verifiedTokenCache.get(tokenValue);
+        if (verified != null) {
+            log.debug("User '" + verified.getUsername() + "' has been authenticated with a recently verified token");
+            return Mono.just(verified);
+        }
+
+        DecodedJWT decodedToken;
+        try {
+            decodedToken = tokenService.verify(tokenValue);
+        } catch (JWTVerificationException e) {
+            log.info("Token '" + tokenValue + "' is invalid");
+            return Mono.empty();
+        }
+        if (decodedToken.getSubject() == null)
+            return Mono.empty();
+
+        var stamp = verifiedTokenCache.stamp();
+        return tokenService.findByToken(tokenValue)
+                .doOnSuccess(token -> {
+                    if (token == null)
+                        log.warn("Not found token '" + tokenValue + "' in database");
+                })
+                .flatMap(token -> userService.findIdentityById(decodedToken.getSubject()))
+                .doOnSuccess(user -> {
+                    if (user == null)
+                        log.warn("User from token does not exist in database");
+                })
+                .doOnNext(user -> verifiedTokenCache.put(tokenValue, stamp, decodedToken.getExpiresAt(), user))
+                .doOnNext(user -> log.info("User '" + user.getUsername() + "' has been authenticated"));
+    }
+
+    private Authentication authenticationOf(UserIdentity user) {
+        return new UsernamePasswordAuthenticationToken(user.getId(), null,
+                List.of(new SimpleGrantedAuthority(user.getRole().name())));
+    }
+}
@@ -1,16 +1,10 @@
 package com.piotrek.diet.security.filter;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
-import com.auth0.jwt.exceptions.JWTVerificationException;
-import com.piotrek.diet.security.token.Token;
-import com.piotrek.diet.security.token.TokenService;
-import com.piotrek.diet.user.User;
-import com.piotrek.diet.user.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
@@ -19,15 +13,17 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.ArrayList;
 
 import static com.piotrek.diet.security.helpers.SecurityConstants.*;
 
+/**
+ * Authenticates the bearer token of a servlet request with {@link JwtAuthenticationManager}, blocking the request thread
+ * once until the lookup completes. A recently verified token is answered from the cache without the database.
+ */
 @Slf4j
 public class JwtAuthorizationFilter extends BasicAuthenticationFilter {
 
-    private UserService userService;
-    private TokenService tokenService;
+    private JwtAuthenticationManager jwtAuthenticationManager;
 
     public JwtAuthorizationFilter(AuthenticationManager authenticationManager) {
         super(authenticationManager);
@@ -45,54 +41,21 @@ public class JwtAuthorizationFilter extends BasicAuthenticationFilter {
             log.warn(HEADER_STRING + " does not starts with '" + TOKEN_PREFIX + "'");
             chain.doFilter(request, response);
         } else {
-            UsernamePasswordAuthenticationToken authentication = getAuthentication(request);
+            Authentication authentication = getAuthentication(request);
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
             chain.doFilter(request, response);
         }
     }
 
-    private UsernamePasswordAuthenticationToken getAuthentication(HttpServletRequest request) {
+    private Authentication getAuthentication(HttpServletRequest request) {
         String tokenValue = request.getHeader(HEADER_STRING);
         tokenValue = tokenValue.replace(TOKEN_PREFIX, "");
-        String userId;
-        try {
-            userId = JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
-                    .build()
-                    .verify(tokenValue)
-                    .getSubject();
-        } catch (JWTVerificationException e) {
-            log.info("Token '" + tokenValue + "' is invalid");
-            return null;
-        }
-        if (userId != null) {
-            Token token = tokenService.findByToken(tokenValue).block();
-            if (token == null) {
-                log.warn("Not found token '" + tokenValue + "' in database");
-                return null;
-            }
-            if (!token.getToken().equals(tokenValue)) {
-                log.warn("Token from database is different than token from header!");
-                return null;
-            }
-            User userFromDB = userService.findById(userId).block();
-            if (userFromDB == null) {
-                log.warn("User from token does not exist in database");
-                return null;
-            }
-            log.info("User '" + userFromDB.getUsername() + "' has been authenticated");
-            return new UsernamePasswordAuthenticationToken(userId, null, new ArrayList<>());
-        }
-        return null;
-    }
-
-    @Autowired
-    public void setUserService(UserService userService) {
-        this.userService = userService;
+        return jwtAuthenticationManager.authenticate(new UsernamePasswordAuthenticationToken(null, tokenValue)).block();
     }
 
     @Autowired
-    public void setTokenService(TokenService tokenService) {
-        this.tokenService = tokenService;
+    public void setJwtAuthenticationManager(JwtAuthenticationManager jwtAuthenticationManager) {
+        this.jwtAuthenticationManager = jwtAuthenticationManager;
     }
 }
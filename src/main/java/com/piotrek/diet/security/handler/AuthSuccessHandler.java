@@ -1,7 +1,5 @@
 package com.piotrek.diet.security.handler;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.piotrek.diet.security.token.Token;
 import com.piotrek.diet.security.token.TokenService;
@@ -20,11 +18,9 @@ import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
 
 import static com.piotrek.diet.security.helpers.SecurityConstants.COOKIE_MAX_AGE;
-import static com.piotrek.diet.security.helpers.SecurityConstants.SECRET;
 
 @Slf4j
 @Component
@@ -54,16 +50,13 @@ public class AuthSuccessHandler extends SimpleUrlAuthenticationSuccessHandler im
             log.debug("User '" + user.getUsername() + "' has been successfully authenticated");
             token = tokenService.findByUserId(user.getId()).block();
             try {
-                JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
-                        .build()
-                        .verify(token.getToken());
+                tokenService.verify(token.getToken());
             } catch (JWTVerificationException e) {
                 token = tokenService.update(tokenService.generateToken(user), token.getId()).block();
                 log.info("User '" + user.getUsername() + "' had expired token, so we have generated a new one");
             }
         }
-        user.setLastVisit(LocalDateTime.now());
-        userService.save(user).block();
+        userService.updateLastVisit(user.getId()).block();
 
         Cookie cookie = new Cookie("Token", token.getToken());
         cookie.setPath("/");
@@ -1,6 +1,10 @@
 package com.piotrek.diet.security.token;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.piotrek.diet.exceptions.NotFoundException;
 import com.piotrek.diet.user.User;
 import com.piotrek.diet.user.UserDto;
 import lombok.RequiredArgsConstructor;
@@ -19,7 +23,11 @@ import static com.piotrek.diet.security.helpers.SecurityConstants.SECRET;
 @RequiredArgsConstructor
 public class TokenService {
 
+    private static final Algorithm ALGORITHM = HMAC512(SECRET.getBytes());
+    private static final JWTVerifier VERIFIER = JWT.require(ALGORITHM).build();
+
     private final TokenRepository tokenRepository;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     public Mono<Token> findByToken(String token) {
         return tokenRepository.findByToken(token);
@@ -34,9 +42,18 @@ public class TokenService {
     }
 
     public Mono<Token> update(String tokenValue, String tokenId) {
-        Token token = tokenRepository.findById(tokenId).block();
-        token.setToken(tokenValue);
-        return tokenRepository.save(token);
+        return tokenRepository.findById(tokenId)
+                .switchIfEmpty(Mono.defer(() -> Mono.error(new NotFoundException("Not found token [id = " + tokenId + "]"))))
+                .flatMap(token -> {
+                    var previousTokenValue = token.getToken();
+                    token.setToken(tokenValue);
+                    return tokenRepository.save(token)
+                            .doOnNext(saved -> verifiedTokenCache.invalidate(previousTokenValue));
+                });
+    }
+
+    public DecodedJWT verify(String tokenValue) {
+        return VERIFIER.verify(tokenValue);
     }
 
     public String generateToken(User user) {
@@ -45,7 +62,7 @@ public class TokenService {
                 .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .withClaim("username", user.getUsername())
                 .withClaim("pictureUrl", user.getPictureUrl())
-                .sign(HMAC512(SECRET.getBytes()));
+                .sign(ALGORITHM);
     }
 
     public String generateToken(UserDto userDto) {
@@ -54,7 +71,7 @@ public class TokenService {
                 .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .withClaim("username", userDto.getUsername())
                 .withClaim("pictureUrl", userDto.getPicture_url())
-                .sign(HMAC512(SECRET.getBytes()));
+                .sign(ALGORITHM);
     }
 
 }
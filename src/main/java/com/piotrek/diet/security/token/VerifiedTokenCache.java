@@ -0,0 +1,101 @@
+package com.piotrek.diet.security.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.piotrek.diet.user.UserIdentity;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recently authenticated tokens with the identity of their owner, so repeated requests with the same token skip the
+ * signature check and the database. Entries are keyed by the SHA-256 of the token, never outlive the token itself and
+ * are dropped as soon as {@link TokenService#update} replaces the token. A lookup that started before the replacement
+ * can't put the old token back: it passes the {@link #stamp()} taken before reading the database, and tokens invalidated
+ * since are not remembered.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    static final int MAXIMUM_SIZE = 10_000;
+    static final Duration MAXIMUM_EXPIRATION = Duration.ofMinutes(10);
+
+    private final Cache<String, Entry> entries = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfter(new UntilTokenExpires())
+            .build();
+    private final Cache<String, Long> invalidations = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(MAXIMUM_EXPIRATION)
+            .build();
+    private final AtomicLong generation = new AtomicLong();
+
+    public long stamp() {
+        return generation.get();
+    }
+
+    public UserIdentity get(String tokenValue) {
+        var entry = entries.getIfPresent(hash(tokenValue));
+        return entry == null || !entry.expiresAt.isAfter(Instant.now()) ? null : entry.identity;
+    }
+
+    public void put(String tokenValue, long stamp, Date expiresAt, UserIdentity identity) {
+        if (expiresAt == null || !expiresAt.toInstant().isAfter(Instant.now()))
+            return;
+
+        entries.asMap().compute(hash(tokenValue), (hash, entry) -> {
+            var invalidatedAt = invalidations.getIfPresent(hash);
+            return invalidatedAt != null && invalidatedAt > stamp ? entry : new Entry(identity, expiresAt.toInstant());
+        });
+    }
+
+    public void invalidate(String tokenValue) {
+        entries.asMap().compute(hash(tokenValue), (hash, entry) -> {
+            invalidations.put(hash, generation.incrementAndGet());
+            return null;
+        });
+    }
+
+    private static String hash(String tokenValue) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(tokenValue.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final UserIdentity identity;
+        private final Instant expiresAt;
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            var untilTokenExpires = Duration.between(Instant.now(), entry.expiresAt);
+            return (untilTokenExpires.compareTo(MAXIMUM_EXPIRATION) < 0 ? untilTokenExpires : MAXIMUM_EXPIRATION).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.piotrek.diet.user;
+
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Moves users still holding embedded {@code favouriteMeals} documents to the {@code favouriteMealIds} set. Blocks on
+ * context refresh, which completes before the web server starts, so no login or profile update saves a user before
+ * the legacy favourites are moved. Safe to run on every start: migrated users no longer match and ids already in the
+ * set are not duplicated.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class FavouriteMealsMigration {
+
+    private static final String LEGACY_FIELD = "favouriteMeals";
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void migrate() {
+        var collection = mongoOperations.getCollectionName(User.class);
+        var legacyUsers = new Query(where(LEGACY_FIELD).exists(true));
+        legacyUsers.fields().include(LEGACY_FIELD + "._id");
+
+        var count = mongoOperations.find(legacyUsers, Document.class, collection)
+                .flatMap(user -> migrate(user, collection))
+                .count()
+                .block();
+        log.info("Migrated favourite meals of " + count + " users");
+    }
+
+    private Mono<UpdateResult> migrate(Document user, String collection) {
+        var legacyMeals = user.get(LEGACY_FIELD) instanceof List ? (List<?>) user.get(LEGACY_FIELD) : List.of();
+        var mealIds = legacyMeals
+                .stream()
+                .filter(Document.class::isInstance)
+                .map(meal -> ((Document) meal).get("_id"))
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .collect(Collectors.toList());
+
+        var update = new Update().addToSet("favouriteMealIds").each(mealIds.toArray()).unset(LEGACY_FIELD);
+        return mongoOperations.updateFirst(query(where("_id").is(user.get("_id"))), update, collection);
+    }
+}
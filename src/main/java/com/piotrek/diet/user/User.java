@@ -1,7 +1,6 @@
 package com.piotrek.diet.user;
 
 import com.piotrek.diet.helpers.BaseEntity;
-import com.piotrek.diet.meal.Meal;
 import com.piotrek.diet.user.enums.Activity;
 import com.piotrek.diet.user.enums.Role;
 import com.piotrek.diet.user.enums.Sex;
@@ -12,7 +11,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 @Data
 @Document
@@ -66,7 +65,7 @@ public class User extends BaseEntity {
     @NotNull
     private Role role;
 
-    private HashSet<Meal> favouriteMeals = new HashSet<>();
+    private LinkedHashSet<String> favouriteMealIds = new LinkedHashSet<>();
 
     public User(long facebookId, String email, String firstName, String lastName) {
         this.facebookId = facebookId;
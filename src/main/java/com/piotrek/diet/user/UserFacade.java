@@ -1,6 +1,5 @@
 package com.piotrek.diet.user;
 
-import com.piotrek.diet.cart.Cart;
 import com.piotrek.diet.cart.CartService;
 import com.piotrek.diet.cloud.CloudStorageService;
 import com.piotrek.diet.exceptions.BadRequestException;
@@ -15,15 +14,19 @@ import com.piotrek.diet.product.ProductService;
 import com.piotrek.diet.security.token.Token;
 import com.piotrek.diet.security.token.TokenService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static com.piotrek.diet.helpers.Constants.CART_UPDATE_RETRIES;
 import static com.piotrek.diet.helpers.Constants.IMAGE_CONTAINER_MEALS;
 import static com.piotrek.diet.helpers.Constants.IMAGE_CONTAINER_PRODUCTS;
 
@@ -83,12 +86,14 @@ public class UserFacade {
         String tokenValue = tokenService.generateToken(userDto);
         tokenService.update(tokenValue, tokenService.findByUserId(userId).block().getId()).block();
         try {
-            Cart cart = cartService.findByUserIdAndDate(userDto.getId(), LocalDate.now()).block();
-            cart.setTargetUserCalories(userDto.getCaloriesPerDay());
-            cart.setTargetUserProtein(userDto.getProteinPerDay());
-            cart.setTargetUserCarbohydrate(userDto.getCarbohydratePerDay());
-            cart.setTargetUserFat(userDto.getFatPerDay());
-            cartService.save(cart).block();
+            cartService.findByUserIdAndDate(userDto.getId(), LocalDate.now())
+                    .doOnNext(cart -> cart.setTargetUserCalories(userDto.getCaloriesPerDay()))
+                    .doOnNext(cart -> cart.setTargetUserProtein(userDto.getProteinPerDay()))
+                    .doOnNext(cart -> cart.setTargetUserCarbohydrate(userDto.getCarbohydratePerDay()))
+                    .doOnNext(cart -> cart.setTargetUserFat(userDto.getFatPerDay()))
+                    .flatMap(cartService::save)
+                    .retry(CART_UPDATE_RETRIES, OptimisticLockingFailureException.class::isInstance)
+                    .block();
         } catch (NotFoundException e) {
         } finally {
             return Mono.just(userDto);
@@ -102,39 +107,37 @@ public class UserFacade {
 
     Mono<Page<MealDto>> findFavouriteMeals(String userId, Pageable pageable) {
         return userService.findById(userId)
-                .map(User::getFavouriteMeals)
-                .flatMap(meals -> Mono.just(new Page<>(meals
-                        .stream()
-                        .skip(pageable.getPageNumber() * pageable.getPageSize())
-                        .limit(pageable.getPageSize())
-                        .map(mealDtoConverter::toDto)
-                        .collect(Collectors.toList()), pageable.getPageNumber(), pageable.getPageSize(), meals.size())));
+                .map(User::getFavouriteMealIds)
+                .flatMap(mealIds -> {
+                    var pageMealIds = mealIds
+                            .stream()
+                            .skip(pageable.getOffset())
+                            .limit(pageable.getPageSize())
+                            .collect(Collectors.toList());
+                    var pageMeals = pageMealIds.isEmpty()
+                            ? Mono.just(Map.<String, Meal>of())
+                            : mealService.findAllByIds(pageMealIds).collectMap(Meal::getId);
+                    return pageMeals.map(mealsById -> new Page<>(pageMealIds
+                            .stream()
+                            .map(mealsById::get)
+                            .filter(Objects::nonNull)
+                            .map(mealDtoConverter::toDto)
+                            .collect(Collectors.toList()), pageable.getPageNumber(), pageable.getPageSize(), mealIds.size()));
+                });
     }
 
     @PreAuthorize("#userId.equals(principal)")
     Mono<Void> addToFavourite(String userId, String mealId) {
         return userService.findById(userId)
-                .flatMap(user -> mealService.findById(mealId)
-                        .flatMap(meal -> user.getFavouriteMeals().contains(meal) ? Mono.error(new BadRequestException("bad request")) : Mono.just(meal))
-                        .doOnSuccess(meal -> user.getFavouriteMeals().add(meal))
-                        .doOnSuccess(meal -> meal.getFavouriteCounter().getAndIncrement())
-                        .flatMap(mealService::save)
-                        .flatMap(meal -> userService.save(user)))
-
-                .then();
+                .flatMap(user -> mealService.findById(mealId))
+                .flatMap(meal -> userService.addFavouriteMeal(userId, mealId))
+                .flatMap(added -> added ? mealService.incrementFavouriteCounter(mealId, 1) : Mono.error(new BadRequestException("bad request")));
     }
 
     @PreAuthorize("#userId.equals(principal)")
     Mono<Void> deleteFromFavourite(String userId, String mealId) {
-        return userService.findById(userId)
-                .flatMap(user -> user.getFavouriteMeals().contains(new Meal(mealId)) ? Mono.just(user) : Mono.error(new BadRequestException("bad request")))
-                .doOnSuccess(user -> user.getFavouriteMeals().remove(new Meal(mealId)))
-                .flatMap(userService::save)
-                .flatMap(user -> mealService.findById(mealId))
-                .doOnSuccess(meal -> meal.getFavouriteCounter().decrementAndGet())
-                .flatMap(mealService::save)
-                .onErrorResume(error -> error instanceof BadRequestException ? Mono.error(error) : Mono.empty())
-                .then();
+        return userService.removeFavouriteMeal(userId, mealId)
+                .flatMap(removed -> removed ? mealService.incrementFavouriteCounter(mealId, -1) : Mono.error(new BadRequestException("bad request")));
     }
 
     Mono<MealDto> findMealDtoById(String id) {
@@ -144,7 +147,7 @@ public class UserFacade {
     @PreAuthorize("#userId.equals(principal)")
     Mono<Boolean> isFavourite(String userId, String mealId) {
         return userService.findById(userId)
-                .map(user -> user.getFavouriteMeals().contains(new Meal(mealId)));
+                .map(user -> user.getFavouriteMealIds().contains(mealId));
     }
 
 }
@@ -0,0 +1,19 @@
+package com.piotrek.diet.user;
+
+import com.piotrek.diet.user.enums.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projection of {@link User} read on every authenticated request; only these fields are fetched and decoded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserIdentity {
+
+    private String id;
+    private String username;
+    private Role role;
+}
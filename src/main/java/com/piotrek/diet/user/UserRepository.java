@@ -3,10 +3,12 @@ package com.piotrek.diet.user;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Mono;
 
-public interface UserRepository extends ReactiveMongoRepository<User, String> {
+public interface UserRepository extends ReactiveMongoRepository<User, String>, UserRepositoryCustom {
 
     Mono<User> findByFacebookId(Long facebookId);
 
     Mono<User> findByEmail(String email);
 
+    Mono<UserIdentity> findIdentityById(String id);
+
 }
@@ -0,0 +1,20 @@
+package com.piotrek.diet.user;
+
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface UserRepositoryCustom {
+
+    Mono<Boolean> addFavouriteMeal(String userId, String mealId);
+
+    Mono<Boolean> removeFavouriteMeal(String userId, String mealId);
+
+    /**
+     * Sets the fields a user can edit in their profile, leaving favourites maintained with {@code $addToSet} and
+     * {@code $pull} untouched.
+     */
+    Mono<User> updateProfile(User user);
+
+    Mono<Void> updateLastVisit(String userId, LocalDateTime lastVisit);
+}
@@ -0,0 +1,56 @@
+package com.piotrek.diet.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+class UserRepositoryImpl implements UserRepositoryCustom {
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    @Override
+    public Mono<Boolean> addFavouriteMeal(String userId, String mealId) {
+        return mongoOperations.updateFirst(query(where("id").is(userId)), new Update().addToSet("favouriteMealIds", mealId), User.class)
+                .map(result -> result.getModifiedCount() > 0);
+    }
+
+    @Override
+    public Mono<Boolean> removeFavouriteMeal(String userId, String mealId) {
+        return mongoOperations.updateFirst(query(where("id").is(userId)), new Update().pull("favouriteMealIds", mealId), User.class)
+                .map(result -> result.getModifiedCount() > 0);
+    }
+
+    @Override
+    public Mono<User> updateProfile(User user) {
+        var update = new Update()
+                .set("username", user.getUsername())
+                .set("firstName", user.getFirstName())
+                .set("lastName", user.getLastName())
+                .set("email", user.getEmail())
+                .set("pictureUrl", user.getPictureUrl())
+                .set("sex", user.getSex())
+                .set("activity", user.getActivity())
+                .set("age", user.getAge())
+                .set("weight", user.getWeight())
+                .set("height", user.getHeight())
+                .set("caloriesPerDay", user.getCaloriesPerDay())
+                .set("carbohydratePerDay", user.getCarbohydratePerDay())
+                .set("proteinPerDay", user.getProteinPerDay())
+                .set("fatPerDay", user.getFatPerDay());
+        return mongoOperations.findAndModify(query(where("id").is(user.getId())), update, options().returnNew(true), User.class);
+    }
+
+    @Override
+    public Mono<Void> updateLastVisit(String userId, LocalDateTime lastVisit) {
+        return mongoOperations.updateFirst(query(where("id").is(userId)), new Update().set("lastVisit", lastVisit), User.class)
+                .then();
+    }
+}
@@ -1,13 +1,18 @@
 package com.piotrek.diet.user;
 
 import com.piotrek.diet.exceptions.NotFoundException;
+import com.piotrek.diet.helpers.SingleFlight;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -18,15 +23,28 @@ public class UserService {
     private final CaloriesCalculator caloriesCalculator;
     private final MacronutrientCalculator macroCalculator;
 
+    @Getter
+    private final SingleFlight<String, User> findByIdFlight = new SingleFlight<>(UserService::copyOf);
+
     public Mono<UserDto> findDtoById(String id) {
         return findById(id).map(userDtoConverter::toDto);
     }
 
     public Mono<User> findById(String id) {
-        return userRepository.findById(id)
+        return findByIdFlight.execute(id, () -> userRepository.findById(id))
                 .switchIfEmpty(Mono.defer(() -> Mono.error(new NotFoundException("Not found user [id = " + id + "]"))));
     }
 
+    private static User copyOf(User user) {
+        var copy = new User();
+        BeanUtils.copyProperties(user, copy);
+        return copy;
+    }
+
+    public Mono<UserIdentity> findIdentityById(String id) {
+        return userRepository.findIdentityById(id);
+    }
+
     public Mono<User> findByFacebookId(Long facebookId) {
         return userRepository.findByFacebookId(facebookId);
     }
@@ -39,6 +57,14 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    public Mono<Boolean> addFavouriteMeal(String userId, String mealId) {
+        return userRepository.addFavouriteMeal(userId, mealId);
+    }
+
+    public Mono<Boolean> removeFavouriteMeal(String userId, String mealId) {
+        return userRepository.removeFavouriteMeal(userId, mealId);
+    }
+
     public Mono<User> save(User user) {
         return userRepository.save(user);
     }
@@ -47,6 +73,10 @@ public class UserService {
         return userRepository.save(userDtoConverter.fromDto(userDto));
     }
 
+    public Mono<Void> updateLastVisit(String userId) {
+        return userRepository.updateLastVisit(userId, LocalDateTime.now());
+    }
+
     @PreAuthorize("#userId.equals(principal)")
     Mono<UserDto> update(String userId, UserDto userDto) {
         return findById(userId)
@@ -64,7 +94,7 @@ public class UserService {
                 .doOnNext(user -> user.setCarbohydratePerDay(macroCalculator.calculateDailyCarbohydrate(user.getCaloriesPerDay())))
                 .doOnNext(user -> user.setProteinPerDay(macroCalculator.calculateDailyProtein(user.getCaloriesPerDay())))
                 .doOnNext(user -> user.setFatPerDay(macroCalculator.calculateDailyFat(user.getCaloriesPerDay())))
-                .flatMap(userRepository::save)
+                .flatMap(userRepository::updateProfile)
                 .map(userDtoConverter::toDto);
     }
 
@@ -0,0 +1,76 @@
+package com.piotrek.diet.cart;
+
+import com.piotrek.diet.helpers.CartSample;
+import com.piotrek.diet.helpers.MealSample;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.piotrek.diet.helpers.ProductSample.banana;
+import static com.piotrek.diet.helpers.ProductSample.bread;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartCalculatorTest {
+
+    private CartCalculator cartCalculator = new CartCalculator();
+
+    private Cart cart;
+
+    @BeforeEach
+    void beforeEach() {
+        cart = CartSample.cart1();
+    }
+
+    @Test
+    @DisplayName("Calculate cart info, when products are not duplicated, then keep them and sum their nutrients")
+    void calculateCartInfo_whenNoDuplicates_thenSumNutrients() {
+        cart.getItems().add(CartItem.of(banana()));
+        cart.getItems().add(CartItem.of(bread()));
+
+        cartCalculator.calculateCartInfo(cart);
+
+        assertAll(
+                () -> assertEquals(List.of(CartItem.of(banana()), CartItem.of(bread())), cart.getAllProducts()),
+                () -> assertEquals(banana().getKcal() + bread().getKcal(), cart.getKcal()),
+                () -> assertEquals(banana().getProtein() + bread().getProtein(), cart.getProtein())
+        );
+    }
+
+    @Test
+    @DisplayName("Calculate cart info, when product is in meals and in cart, then merge it in place of its first occurrence")
+    void calculateCartInfo_whenDuplicated_thenMergeInFirstSeenOrder() {
+        var meal = MealSample.coffee();
+        meal.getProducts().add(bread());
+        meal.getProducts().add(banana());
+        cart.getItems().add(CartItem.of(banana()));
+        cart.getItems().add(CartItem.of(meal));
+
+        cartCalculator.calculateCartInfo(cart);
+
+        final var mergedBanana = cart.getAllProducts().get(0);
+        assertAll(
+                () -> assertEquals(List.of(CartItem.of(banana()), CartItem.of(bread())), cart.getAllProducts()),
+                () -> assertEquals(banana().getAmount() * 2, mergedBanana.getAmount()),
+                () -> assertEquals(banana().getKcal() * 2, mergedBanana.getKcal()),
+                () -> assertEquals(banana().getAmount(), cart.getItems().get(0).getAmount(), "cart item changed"),
+                () -> assertEquals(banana().getKcal() * 2 + bread().getKcal(), cart.getKcal())
+        );
+    }
+
+    @Test
+    @DisplayName("Calculate cart info, when item was removed, then totals no longer include it")
+    void calculateCartInfo_whenItemRemoved_thenRecalculateTotals() {
+        cart.getItems().add(CartItem.of(banana()));
+        cart.getItems().add(CartItem.of(bread()));
+        cartCalculator.calculateCartInfo(cart);
+
+        cart.getItems().remove(CartItem.of(banana()));
+        cartCalculator.calculateCartInfo(cart);
+
+        assertEquals(List.of(CartItem.of(bread())), cart.getAllProducts());
+        assertEquals(bread().getKcal(), cart.getKcal());
+        assertEquals(bread().getFat(), cart.getFat());
+    }
+}
@@ -4,188 +4,129 @@ import com.piotrek.diet.helpers.CartSample;
 import com.piotrek.diet.helpers.MealSample;
 import com.piotrek.diet.helpers.ProductSample;
 import com.piotrek.diet.meal.Meal;
-import com.piotrek.diet.meal.MealDto;
-import com.piotrek.diet.meal.MealDtoConverter;
 import com.piotrek.diet.product.Product;
 import com.piotrek.diet.product.ProductDto;
-import com.piotrek.diet.product.ProductDtoConverter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
+
+import java.util.List;
 
 import static com.piotrek.diet.helpers.AssertEqualAllFields.assertCartFields;
-import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 class CartDtoConverterTest {
 
-    @Mock
-    private ProductDtoConverter productDtoConverter;
-
-    @Mock
-    private MealDtoConverter mealDtoConverter;
-
-    @Mock
-    private CartCalculator cartCalculator;
-
-    @InjectMocks
-    private CartDtoConverter cartDtoConverter;
+    private CartDtoConverter cartDtoConverter = new CartDtoConverter();
 
     private Cart cart;
     private CartDto cartDto;
 
     @BeforeEach
     void beforeEach() {
-        MockitoAnnotations.initMocks(this);
         cart = CartSample.cart1();
         cartDto = CartSample.cartDto1();
     }
 
     @Test
     void toDto_emptyCart() {
-        when(cartCalculator.calculateCartInfo(cartDto)).thenReturn(cartDto);
-        when(productDtoConverter.listToDto(cart.getProducts())).thenReturn(cartDto.getProducts());
-        when(mealDtoConverter.listToDto(cart.getMeals())).thenReturn(cartDto.getMeals());
-
         final var converted = cartDtoConverter.toDto(cart);
 
         assertCartFields(cartDto, converted);
-        verify(productDtoConverter, times(1)).listToDto(cart.getProducts());
-        verify(mealDtoConverter, times(1)).listToDto(cart.getMeals());
-        verify(cartCalculator, times(1)).calculateCartInfo(cartDto);
-        verifyNoMoreInteractions(productDtoConverter, mealDtoConverter, cartCalculator);
     }
 
     @Test
     void toDto_withProducts() {
-        cart.getProducts().add(ProductSample.banana());
+        var banana = ProductSample.banana();
+        cart.getItems().add(CartItem.of(banana));
         cartDto.getProducts().add(ProductSample.bananaDto());
-        cartDto.getAllProducts().add(ProductSample.bananaDto());
-        cartDto.setItemCounter(cartDto.getItemCounter() + 1);
-
-        when(productDtoConverter.listToDto(cart.getProducts())).thenReturn(cartDto.getProducts());
-        when(mealDtoConverter.listToDto(cart.getMeals())).thenReturn(cartDto.getMeals());
-        when(cartCalculator.calculateCartInfo(cartDto)).thenReturn(cartDto);
+        cartDto.setItemCounter(1);
 
         final var converted = cartDtoConverter.toDto(cart);
 
         assertCartFields(cartDto, converted);
-        verify(productDtoConverter, times(1)).listToDto(cart.getProducts());
-        verify(mealDtoConverter, times(1)).listToDto(cart.getMeals());
-        verify(cartCalculator, times(1)).calculateCartInfo(cartDto);
-        verifyNoMoreInteractions(productDtoConverter, mealDtoConverter, cartCalculator);
+        assertProductItem(banana, converted.getProducts().get(0));
     }
 
     @Test
     void toDto_withMealsAndProducts() {
-        addProducts();
-        addMeals();
-
-        when(productDtoConverter.listToDto(cart.getProducts())).thenReturn(cartDto.getProducts());
-        when(mealDtoConverter.listToDto(cart.getMeals())).thenReturn(cartDto.getMeals());
-        when(cartCalculator.calculateCartInfo(cartDto)).thenReturn(cartDto);
+        var meal = MealSample.coffee();
+        meal.getProducts().add(ProductSample.banana());
+        var bread = ProductSample.bread();
+        cart.getItems().add(CartItem.of(meal));
+        cart.getItems().add(CartItem.of(bread));
+        cartDto.getMeals().add(MealSample.coffeeDto());
+        cartDto.getProducts().add(ProductSample.breadDto());
+        cartDto.setItemCounter(2);
 
         final var converted = cartDtoConverter.toDto(cart);
+
         assertCartFields(cartDto, converted);
-        verify(productDtoConverter, times(1)).listToDto(cart.getProducts());
-        verify(mealDtoConverter, times(1)).listToDto(cart.getMeals());
-        verify(cartCalculator, times(1)).calculateCartInfo(cartDto);
-        verifyNoMoreInteractions(productDtoConverter, mealDtoConverter, cartCalculator);
+        var convertedMeal = converted.getMeals().get(0);
+        assertAll(
+                () -> assertEquals(meal.getId(), convertedMeal.getId()),
+                () -> assertEquals(meal.getAmount(), convertedMeal.getAmount()),
+                () -> assertEquals(meal.getKcal(), convertedMeal.getKcal()),
+                () -> assertEquals(1, convertedMeal.getProducts().size()),
+                () -> assertProductItem(meal.getProducts().get(0), convertedMeal.getProducts().get(0)),
+                () -> assertProductItem(bread, converted.getProducts().get(0))
+        );
     }
 
     @Test
-    void toDto_withMealsWithMealsAndProductsDuplicated() {
-        Product firstProduct = ProductSample.bread();
-        ProductDto firstProductDto = ProductSample.breadDto();
-        cart.getProducts().add(firstProduct);
-        cartDto.getProducts().add(firstProductDto);
-        cartDto.getAllProducts().add(firstProductDto);
-        cartDto.setItemCounter(cartDto.getItemCounter() + 1);
-
-        Product secondProduct = ProductSample.banana();
-        ProductDto secondProductDto = ProductSample.bananaDto();
-        cart.getProducts().add(secondProduct);
-        cartDto.getProducts().add(secondProductDto);
-        cartDto.getAllProducts().add(secondProductDto);
-        cartDto.setItemCounter(cartDto.getItemCounter() + 1);
-
-        Meal firstMealWithSecondProduct = MealSample.coffee();
-        firstMealWithSecondProduct.getProducts().add(ProductSample.banana());
-        MealDto firstMealWithSecondProductDto = MealSample.coffeeDto();
-        firstMealWithSecondProductDto.getProducts().add(ProductSample.bananaDto());
-
-        cart.getMeals().add(firstMealWithSecondProduct);
-        cartDto.getMeals().add(firstMealWithSecondProductDto);
-        cartDto.setItemCounter(cartDto.getItemCounter() + 1);
-
-        Meal dumplingsMeal = MealSample.dumplings();
-        dumplingsMeal.getProducts().add(ProductSample.banana());
-
-        MealDto dumplingsMealDto = MealSample.dumplingsDto();
-        dumplingsMealDto.getProducts().add(ProductSample.bananaDto());
-
-        cart.getMeals().add(dumplingsMeal);
-        cartDto.getMeals().add(dumplingsMealDto);
-        cartDto.getAllProducts().addAll(cartDto.getProducts());
-        cartDto.setItemCounter(cartDto.getItemCounter() + 1);
-
-        when(productDtoConverter.listToDto(cart.getProducts())).thenReturn(cartDto.getProducts());
-        when(mealDtoConverter.listToDto(cart.getMeals())).thenReturn(cartDto.getMeals());
-        when(cartCalculator.calculateCartInfo(cartDto)).thenReturn(cartDto);
+    void toDto_withTotals() {
+        var bread = ProductSample.bread();
+        cart.getItems().add(CartItem.of(bread));
+        cart.getAllProducts().add(CartItem.of(bread));
+        cart.setProtein(bread.getProtein());
+        cart.setCarbohydrate(bread.getCarbohydrate());
+        cart.setFat(bread.getFat());
+        cart.setKcal(bread.getKcal());
+        cartDto.getProducts().add(ProductSample.breadDto());
+        cartDto.getAllProducts().add(ProductSample.breadDto());
+        cartDto.setItemCounter(1);
+        cartDto.setProtein(bread.getProtein());
+        cartDto.setCarbohydrate(bread.getCarbohydrate());
+        cartDto.setFat(bread.getFat());
+        cartDto.setKcal(bread.getKcal());
 
         final var converted = cartDtoConverter.toDto(cart);
+
         assertCartFields(cartDto, converted);
-        verify(productDtoConverter, times(1)).listToDto(cart.getProducts());
-        verify(mealDtoConverter, times(1)).listToDto(cart.getMeals());
-        verify(cartCalculator, times(1)).calculateCartInfo(cartDto);
-        verifyNoMoreInteractions(productDtoConverter, mealDtoConverter, cartCalculator);
+        assertProductItem(bread, converted.getAllProducts().get(0));
     }
 
-
     @Test
     void fromDto() {
-        when(productDtoConverter.listFromDto(cartDto.getProducts())).thenReturn(cart.getProducts());
-        when(mealDtoConverter.listFromDto(cartDto.getMeals())).thenReturn(cart.getMeals());
         final Cart converted = cartDtoConverter.fromDto(cartDto);
+
         assertCartFields(cart, converted);
-        verify(productDtoConverter, times(1)).listFromDto(cartDto.getProducts());
-        verify(mealDtoConverter, times(1)).listFromDto(cartDto.getMeals());
-        verifyNoMoreInteractions(productDtoConverter, mealDtoConverter, cartCalculator);
     }
 
     @Test
     void fromDto_withMealsAndProducts() {
-        addMeals();
-        addProducts();
-
-        when(productDtoConverter.listFromDto(cartDto.getProducts())).thenReturn(cart.getProducts());
-        when(mealDtoConverter.listFromDto(cartDto.getMeals())).thenReturn(cart.getMeals());
+        Meal meal = MealSample.coffee();
+        Product banana = ProductSample.banana();
+        cart.getItems().add(CartItem.of(meal));
+        cart.getItems().add(CartItem.of(banana));
+        cartDto.getMeals().add(MealSample.coffeeDto());
+        cartDto.getProducts().add(ProductSample.bananaDto());
 
         final Cart converted = cartDtoConverter.fromDto(cartDto);
-        assertCartFields(cart, converted);
-        verify(productDtoConverter, times(1)).listFromDto(cartDto.getProducts());
-        verify(mealDtoConverter, times(1)).listFromDto(cartDto.getMeals());
-        verifyNoMoreInteractions(productDtoConverter, mealDtoConverter, cartCalculator);
-    }
-
-    private void addProducts() {
-        cart.getProducts().add(ProductSample.banana());
-        cart.getProducts().add(ProductSample.bread());
 
-        cartDto.getProducts().add(ProductSample.bananaDto());
-        cartDto.getProducts().add(ProductSample.breadDto());
-        cartDto.setItemCounter(cartDto.getItemCounter() + 2);
-        cartDto.getAllProducts().addAll(cartDto.getProducts());
+        assertCartFields(cart, converted);
+        assertEquals(List.of(CartItem.Type.MEAL, CartItem.Type.PRODUCT),
+                List.of(converted.getItems().get(0).getType(), converted.getItems().get(1).getType()));
     }
 
-    private void addMeals() {
-        cart.getMeals().add(MealSample.coffee());
-        cart.getMeals().add(MealSample.dumplings());
-
-        cartDto.getMeals().add(MealSample.coffeeDto());
-        cartDto.getMeals().add(MealSample.dumplingsDto());
-        cartDto.setItemCounter(cartDto.getItemCounter() + 2);
+    private void assertProductItem(Product expected, ProductDto actual) {
+        assertAll(
+                () -> assertEquals(expected.getId(), actual.getId()),
+                () -> assertEquals(expected.getAmount(), actual.getAmount()),
+                () -> assertEquals(expected.getProtein(), actual.getProtein()),
+                () -> assertEquals(expected.getCarbohydrate(), actual.getCarbohydrate()),
+                () -> assertEquals(expected.getFat(), actual.getFat()),
+                () -> assertEquals(expected.getKcal(), actual.getKcal()),
+                () -> assertNull(actual.getName())
+        );
     }
-
-}
\ No newline at end of file
+}
@@ -19,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
@@ -50,6 +51,9 @@ class CartFacadeTest {
     @Mock
     private CartDtoConverter cartDtoConverter;
 
+    @Mock
+    private CartItemDetails cartItemDetails;
+
     @InjectMocks
     private CartFacade cartFacade;
 
@@ -77,6 +81,7 @@ class CartFacadeTest {
         cartDto = CartSample.cartDto1();
         cart = CartSample.cart1();
         MockitoAnnotations.initMocks(this);
+        when(cartItemDetails.fill(any(CartDto.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
     }
 
     @Test
@@ -109,7 +114,7 @@ class CartFacadeTest {
     void addMealToCart_whenCartIsEmpty_thenCartShouldHasOneMeal() {
         final var AMOUNT = 100;
 
-        when(cartService.findByUserIdAndDate(cart.getUserId(), cart.getDate())).thenReturn(Mono.just(cart));
+        when(cartService.findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any())).thenReturn(Mono.just(cart));
         when(cartDtoConverter.toDto(cart)).thenReturn(cartDto);
         when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
         when(cartService.save(cart)).thenReturn(Mono.just(cart));
@@ -126,7 +131,7 @@ class CartFacadeTest {
 
         assertCartFields(cartDto, block);
         assertMealFields(cartDto.getMeals().get(0), block.getMeals().get(0));
-        verify(cartService, times(1)).findByUserIdAndDate(cart.getUserId(), cart.getDate());
+        verify(cartService, times(1)).findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any());
         verify(cartDtoConverter, times(1)).toDto(cart);
         verify(mealService, times(1)).findById(meal.getId());
         verify(cartService, times(1)).save(cart);
@@ -136,7 +141,7 @@ class CartFacadeTest {
     @Test
     @DisplayName("Add meal to cart, when cart is empty, then cart should has 1 meal")
     void addMealToCart_whenThereIsNoCart_thenCreateCartAndAddMeal() {
-        when(cartService.findByUserIdAndDate(cart.getUserId(), cart.getDate())).thenReturn(Mono.error(new NotFoundException("")));
+        when(cartService.findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any())).thenAnswer(invocation -> invocation.getArgument(2));
         when(userService.findById(cart.getUserId())).thenReturn(Mono.just(user));
         when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
         when(cartDtoConverter.toDto(cart)).thenReturn(cartDto);
@@ -154,7 +159,7 @@ class CartFacadeTest {
 
         assertCartFields(cartDto, block);
         verify(userService, times(1)).findById(cart.getUserId());
-        verify(cartService, times(1)).findByUserIdAndDate(cart.getUserId(), cart.getDate());
+        verify(cartService, times(1)).findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any());
         verify(cartDtoConverter, times(1)).toDto(cart);
         verify(mealService, times(1)).findById(meal.getId());
         verify(cartService, times(1)).save(any(Cart.class));
@@ -164,12 +169,12 @@ class CartFacadeTest {
     @Test
     @DisplayName("Add meal to cart, when cart had one meal, then cart should has 2 meals")
     void addMealToCart_whenCartHadOneMeal_thenCartShouldHasTwoMeals() {
-        when(cartService.findByUserIdAndDate(cart.getUserId(), cart.getDate())).thenReturn(Mono.just(cart));
+        when(cartService.findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any())).thenReturn(Mono.just(cart));
         when(cartDtoConverter.toDto(cart)).thenReturn(cartDto);
         when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
         when(cartService.save(cart)).thenReturn(Mono.just(cart));
 
-        cart.getMeals().add(meal);
+        cart.getItems().add(CartItem.of(meal));
         cartDto.getMeals().add(mealDto);
         cartDto.getMeals().add(MealSample.dumplingsDto());
         cartDto.getAllProducts().addAll(mealDto.getProducts());
@@ -179,7 +184,7 @@ class CartFacadeTest {
 
         assertCartFields(cartDto, block);
         verify(cartDtoConverter, times(1)).toDto(cart);
-        verify(cartService, times(1)).findByUserIdAndDate(cart.getUserId(), cart.getDate());
+        verify(cartService, times(1)).findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any());
         verify(mealService, times(1)).findById(meal.getId());
         verify(cartService, times(1)).save(cart);
         verifyNoMoreInteractions(cartService, userService, mealService, productService, cartDtoConverter);
@@ -188,12 +193,12 @@ class CartFacadeTest {
     @Test
     @DisplayName("Add meal to cart, when cart had one product, then cart should has one product and one meal")
     void addMealToCart_whenCartHadOneProduct_thenCartShouldHasOneMealAndOneProduct() {
-        when(cartService.findByUserIdAndDate(cart.getUserId(), cart.getDate())).thenReturn(Mono.just(cart));
+        when(cartService.findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any())).thenReturn(Mono.just(cart));
         when(cartDtoConverter.toDto(cart)).thenReturn(cartDto);
         when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
         when(cartService.save(cart)).thenReturn(Mono.just(cart));
 
-        cart.getProducts().add(product);
+        cart.getItems().add(CartItem.of(product));
         cartDto.getProducts().add(productDto);
         cartDto.getAllProducts().add(productDto);
         cartDto.getMeals().add(mealDto);
@@ -202,7 +207,7 @@ class CartFacadeTest {
         var block = cartFacade.addMealToCart(user.getId(), meal.getId(), cart.getDate(), 100).block();
 
         assertCartFields(cartDto, block);
-        verify(cartService, times(1)).findByUserIdAndDate(cart.getUserId(), cart.getDate());
+        verify(cartService, times(1)).findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any());
         verify(mealService, times(1)).findById(meal.getId());
         verify(cartDtoConverter, times(1)).toDto(cart);
         verify(cartService, times(1)).save(cart);
@@ -218,7 +223,7 @@ class CartFacadeTest {
         when(cartService.save(cart)).thenReturn(Mono.just(cart));
         when(cartDtoConverter.toDto(cart)).thenReturn(cartDto);
 
-        cart.getMeals().add(meal);
+        cart.getItems().add(CartItem.of(meal));
 
         CartDto block = cartFacade.deleteMealFromCart(cart.getUserId(), meal.getId(), cart.getDate()).block();
 
@@ -247,10 +252,12 @@ class CartFacadeTest {
     @Test
     @DisplayName("Add product to cart, when there is no cart, then cart should be created and product should be added")
     void addProductToCart_whenThereIsNoCart_thenCreateCartAndAddProduct() {
-        when(cartService.findByUserIdAndDate(cart.getUserId(), cart.getDate())).thenReturn(Mono.error(new NotFoundException("")));
+        when(cartService.findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any())).thenAnswer(invocation -> invocation.getArgument(2));
         when(userService.findById(cart.getUserId())).thenReturn(Mono.just(user));
         when(cartDtoConverter.toDto(cart)).thenReturn(cartDto);
         when(productService.findById(product.getId())).thenReturn(Mono.just(product));
+        when(productService.calculateProductInfoByAmount(product)).thenReturn(product);
+        when(productService.incrementCartCounter(product.getId())).thenReturn(Mono.empty());
         when(cartService.save(any(Cart.class))).thenReturn(Mono.just(cart));
 
         cartDto.getProducts().add(productDto);
@@ -259,20 +266,22 @@ class CartFacadeTest {
         final var block = cartFacade.addProductToCart(user.getId(), product.getId(), cart.getDate(), 100).block();
 
         assertCartFields(cartDto, block);
-        verify(cartService, times(1)).findByUserIdAndDate(cart.getUserId(), cart.getDate());
+        verify(cartService, times(1)).findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any());
         verify(userService, times(1)).findById(cart.getUserId());
         verify(cartDtoConverter, times(1)).toDto(cart);
         verify(productService, times(1)).findById(product.getId());
         verify(cartService, times(1)).save(any(Cart.class));
         verify(productService, times(1)).calculateProductInfoByAmount(product);
+        verify(productService, times(1)).incrementCartCounter(product.getId());
         verifyNoMoreInteractions(cartService, userService, mealService, productService, cartDtoConverter);
     }
 
     @Test
     @DisplayName("Add product to cart, when cart is empty, then create cart and add product")
     void addProductToCart_whenCartIsEmpty_thenCartShouldHasOneProduct() {
-        when(cartService.findByUserIdAndDate(user.getId(), cart.getDate())).thenReturn(Mono.just(cart));
+        when(cartService.findOrCreate(eq(user.getId()), eq(cart.getDate()), any())).thenReturn(Mono.just(cart));
         when(productService.findById(product.getId())).thenReturn(Mono.just(product));
+        when(productService.incrementCartCounter(product.getId())).thenReturn(Mono.empty());
         when(productService.calculateProductInfoByAmount(product)).thenReturn(product);
         when(cartService.save(any(Cart.class))).thenReturn(Mono.just(cart));
         when(cartDtoConverter.toDto(cart)).thenReturn(cartDto);
@@ -283,23 +292,26 @@ class CartFacadeTest {
         final var block = cartFacade.addProductToCart(user.getId(), product.getId(), cart.getDate(), 100).block();
 
         assertCartFields(cartDto, block);
-        verify(cartService, times(1)).findByUserIdAndDate(user.getId(), cart.getDate());
+        verify(cartService, times(1)).findOrCreate(eq(user.getId()), eq(cart.getDate()), any());
         verify(productService, times(1)).findById(product.getId());
         verify(productService, times(1)).calculateProductInfoByAmount(product);
         verify(cartService, times(1)).save(any(Cart.class));
         verify(cartDtoConverter, times(1)).toDto(cart);
+        verify(productService, times(1)).incrementCartCounter(product.getId());
         verifyNoMoreInteractions(cartService, userService, mealService, productService, cartDtoConverter);
     }
 
     @Test
     @DisplayName("Add product to cart, when cart had one product, then cart should has 2 products")
     void addProductToCart_whenCartHadOneProduct_thenCartShouldHasTwoProducts() {
-        when(cartService.findByUserIdAndDate(cart.getUserId(), cart.getDate())).thenReturn(Mono.just(cart));
+        when(cartService.findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any())).thenReturn(Mono.just(cart));
         when(cartDtoConverter.toDto(cart)).thenReturn(cartDto);
         when(productService.findById(product.getId())).thenReturn(Mono.just(product));
+        when(productService.calculateProductInfoByAmount(product)).thenReturn(product);
+        when(productService.incrementCartCounter(product.getId())).thenReturn(Mono.empty());
         when(cartService.save(cart)).thenReturn(Mono.just(cart));
 
-        cart.getProducts().add(product);
+        cart.getItems().add(CartItem.of(product));
         cartDto.getProducts().add(productDto);
         cartDto.getProducts().add(ProductSample.breadDto());
         cartDto.getAllProducts().add(productDto);
@@ -308,25 +320,28 @@ class CartFacadeTest {
         var block = cartFacade.addProductToCart(user.getId(), product.getId(), cart.getDate(), 100).block();
 
         assertCartFields(cartDto, block);
-        verify(cartService, times(1)).findByUserIdAndDate(cart.getUserId(), cart.getDate());
+        verify(cartService, times(1)).findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any());
         verify(cartDtoConverter, times(1)).toDto(cart);
         verify(productService, times(1)).findById(product.getId());
         verify(cartService, times(1)).save(cart);
         verify(productService, times(1)).calculateProductInfoByAmount(product);
+        verify(productService, times(1)).incrementCartCounter(product.getId());
         verifyNoMoreInteractions(cartService, userService, mealService, productService, cartDtoConverter);
     }
 
     @Test
     @DisplayName("Add product to cart, when cart had one product, then cart should has 2 products")
     void addProductToCart_whenCartHadTheSameOneProduct_thenCartShouldHasOneProductWithSum() {
-        when(cartService.findByUserIdAndDate(cart.getUserId(), cart.getDate())).thenReturn(Mono.just(cart));
+        when(cartService.findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any())).thenReturn(Mono.just(cart));
         when(productService.findById(product.getId())).thenReturn(Mono.just(product));
+        when(productService.calculateProductInfoByAmount(product)).thenReturn(product);
+        when(productService.incrementCartCounter(product.getId())).thenReturn(Mono.empty());
         when(cartService.save(cart)).thenReturn(Mono.just(cart));
         when(cartDtoConverter.toDto(cart)).thenReturn(cartDto);
 
         product.setAmount(100);
         productDto.setAmount(200);
-        cart.getProducts().add(product);
+        cart.getItems().add(CartItem.of(product));
         cartDto.getProducts().add(productDto);
         cartDto.getAllProducts().add(productDto);
         cartDto.getAllProducts().add(ProductSample.breadDto());
@@ -334,11 +349,48 @@ class CartFacadeTest {
         var block = cartFacade.addProductToCart(user.getId(), product.getId(), cart.getDate(), 100).block();
 
         assertCartFields(cartDto, block);
-        verify(cartService, times(1)).findByUserIdAndDate(cart.getUserId(), cart.getDate());
+        verify(cartService, times(1)).findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any());
         verify(cartDtoConverter, times(1)).toDto(cart);
         verify(productService, times(1)).findById(product.getId());
         verify(cartService, times(1)).save(cart);
         verify(productService, times(1)).calculateProductInfoByAmount(product);
+        verify(productService, times(1)).incrementCartCounter(product.getId());
+        verifyNoMoreInteractions(cartService, userService, mealService, productService, cartDtoConverter);
+    }
+
+    @Test
+    @DisplayName("Add product to cart, when another request saved the cart in between, then re-read the cart and retry")
+    void addProductToCart_whenConcurrentUpdate_thenRetry() {
+        when(cartService.findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any())).thenReturn(Mono.just(cart));
+        when(productService.findById(product.getId())).thenReturn(Mono.just(product));
+        when(productService.calculateProductInfoByAmount(product)).thenReturn(product);
+        when(productService.incrementCartCounter(product.getId())).thenReturn(Mono.empty());
+        when(cartService.save(cart)).thenReturn(Mono.error(new OptimisticLockingFailureException(""))).thenReturn(Mono.just(cart));
+        when(cartDtoConverter.toDto(cart)).thenReturn(cartDto);
+
+        final var block = cartFacade.addProductToCart(user.getId(), product.getId(), cart.getDate(), 100).block();
+
+        assertCartFields(cartDto, block);
+        verify(cartService, times(1)).findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any());
+        verify(productService, times(1)).findById(product.getId());
+        verify(productService, times(2)).calculateProductInfoByAmount(product);
+        verify(cartService, times(2)).save(cart);
+        verify(productService, times(1)).incrementCartCounter(product.getId());
+        verify(cartDtoConverter, times(1)).toDto(cart);
+        verifyNoMoreInteractions(cartService, userService, mealService, productService, cartDtoConverter);
+    }
+
+    @Test
+    @DisplayName("Add product to cart, when product does not exist, then throw NotFoundException and do not save the cart")
+    void addProductToCart_whenProductNotFound_thenThrowNotFoundException() {
+        when(cartService.findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any())).thenReturn(Mono.just(cart));
+        when(productService.findById(product.getId())).thenReturn(Mono.error(new NotFoundException("")));
+
+        assertThrows(NotFoundException.class,
+                () -> cartFacade.addProductToCart(user.getId(), product.getId(), cart.getDate(), 100).block());
+
+        verify(cartService, times(1)).findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any());
+        verify(productService, times(1)).findById(product.getId());
         verifyNoMoreInteractions(cartService, userService, mealService, productService, cartDtoConverter);
     }
 
@@ -351,12 +403,14 @@ class CartFacadeTest {
         product.setAmount(AMOUNT);
         productDto.setAmount(AMOUNT);
 
-        when(cartService.findByUserIdAndDate(cart.getUserId(), cart.getDate())).thenReturn(Mono.just(cart));
+        when(cartService.findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any())).thenReturn(Mono.just(cart));
         when(productService.findById(product.getId())).thenReturn(Mono.just(product));
+        when(productService.calculateProductInfoByAmount(product)).thenReturn(product);
+        when(productService.incrementCartCounter(product.getId())).thenReturn(Mono.empty());
         when(cartService.save(cart)).thenReturn(Mono.just(cart));
         when(cartDtoConverter.toDto(cart)).thenReturn(cartDto);
 
-        cart.getMeals().add(meal);
+        cart.getItems().add(CartItem.of(meal));
         cartDto.getProducts().add(productDto);
         cartDto.getAllProducts().add(productDto);
         cartDto.getMeals().add(mealDto);
@@ -367,16 +421,17 @@ class CartFacadeTest {
         assertCartFields(cartDto, block);
         verify(cartDtoConverter, times(1)).toDto(cart);
         verify(productService, times(1)).calculateProductInfoByAmount(product);
-        verify(cartService, times(1)).findByUserIdAndDate(cart.getUserId(), cart.getDate());
+        verify(cartService, times(1)).findOrCreate(eq(cart.getUserId()), eq(cart.getDate()), any());
         verify(productService, times(1)).findById(product.getId());
         verify(cartService, times(1)).save(cart);
+        verify(productService, times(1)).incrementCartCounter(product.getId());
         verifyNoMoreInteractions(cartService, userService, mealService, productService, cartDtoConverter);
     }
 
     @Test
     @DisplayName("Delete product from cart, when cart had one product, then cart should be empty")
     void deleteProductFromCart_whenCartHadOneProduct_thenCartShouldBeEmpty() {
-        cart.getProducts().add(product);
+        cart.getItems().add(CartItem.of(product));
 
         when(cartService.findByUserIdAndDate(cart.getUserId(), cart.getDate())).thenReturn(Mono.just(cart));
         when(productService.findById(product.getId())).thenReturn(Mono.just(product));
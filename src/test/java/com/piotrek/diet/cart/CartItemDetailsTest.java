@@ -0,0 +1,109 @@
+package com.piotrek.diet.cart;
+
+import com.piotrek.diet.helpers.CartSample;
+import com.piotrek.diet.helpers.MealSample;
+import com.piotrek.diet.helpers.ProductSample;
+import com.piotrek.diet.meal.Meal;
+import com.piotrek.diet.meal.MealDto;
+import com.piotrek.diet.meal.MealService;
+import com.piotrek.diet.product.Product;
+import com.piotrek.diet.product.ProductDto;
+import com.piotrek.diet.product.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CartItemDetailsTest {
+
+    @Mock
+    private MealService mealService;
+
+    @Mock
+    private ProductService productService;
+
+    @InjectMocks
+    private CartItemDetails cartItemDetails;
+
+    private Meal meal;
+    private Product product;
+
+    @BeforeEach
+    void beforeEach() {
+        MockitoAnnotations.initMocks(this);
+        meal = MealSample.coffee();
+        product = ProductSample.banana();
+    }
+
+    @Test
+    @DisplayName("Fill, when cart has meals and products, then set their names and images loaded in one query per type")
+    void fill_whenCartHasItems_thenSetNamesAndImages() {
+        when(mealService.findAllByIds(Set.of(meal.getId()))).thenReturn(Flux.just(meal));
+        when(productService.findAllByIds(Set.of(product.getId()))).thenReturn(Flux.just(product));
+
+        final var filled = cartItemDetails.fill(cartWithMealAndProduct()).block();
+
+        assertAll(
+                () -> assertEquals(meal.getName(), filled.getMeals().get(0).getName()),
+                () -> assertEquals(meal.getImageUrl(), filled.getMeals().get(0).getImageUrl()),
+                () -> assertEquals(product.getName(), filled.getMeals().get(0).getProducts().get(0).getName()),
+                () -> assertEquals(product.getName(), filled.getProducts().get(0).getName()),
+                () -> assertEquals(product.getImageUrl(), filled.getProducts().get(0).getImageUrl())
+        );
+        verify(mealService, times(1)).findAllByIds(Set.of(meal.getId()));
+        verify(productService, times(1)).findAllByIds(Set.of(product.getId()));
+        verifyNoMoreInteractions(mealService, productService);
+    }
+
+    @Test
+    @DisplayName("Fill, when details were loaded before, then take them from the cache")
+    void fill_whenLoadedBefore_thenUseCache() {
+        when(mealService.findAllByIds(Set.of(meal.getId()))).thenReturn(Flux.just(meal));
+        when(productService.findAllByIds(Set.of(product.getId()))).thenReturn(Flux.just(product));
+
+        cartItemDetails.fill(cartWithMealAndProduct()).block();
+        final var filled = cartItemDetails.fill(cartWithMealAndProduct()).block();
+
+        assertEquals(meal.getName(), filled.getMeals().get(0).getName());
+        assertEquals(product.getName(), filled.getProducts().get(0).getName());
+        verify(mealService, times(1)).findAllByIds(Set.of(meal.getId()));
+        verify(productService, times(1)).findAllByIds(Set.of(product.getId()));
+        verifyNoMoreInteractions(mealService, productService);
+    }
+
+    @Test
+    @DisplayName("Fill, when item was deleted, then leave it without name")
+    void fill_whenItemDeleted_thenLeaveWithoutName() {
+        when(mealService.findAllByIds(Set.of(meal.getId()))).thenReturn(Flux.empty());
+        when(productService.findAllByIds(Set.of(product.getId()))).thenReturn(Flux.just(product));
+
+        final var filled = cartItemDetails.fill(cartWithMealAndProduct()).block();
+
+        assertNull(filled.getMeals().get(0).getName());
+        assertEquals(product.getName(), filled.getProducts().get(0).getName());
+    }
+
+    private CartDto cartWithMealAndProduct() {
+        var cartDto = CartSample.cartDto1();
+        var mealDto = new MealDto(meal.getId());
+        mealDto.getProducts().add(productDto());
+        cartDto.getMeals().add(mealDto);
+        cartDto.getProducts().add(productDto());
+        cartDto.getAllProducts().add(productDto());
+        return cartDto;
+    }
+
+    private ProductDto productDto() {
+        var productDto = new ProductDto();
+        productDto.setId(product.getId());
+        return productDto;
+    }
+}
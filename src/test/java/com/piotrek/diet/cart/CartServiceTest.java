@@ -13,6 +13,7 @@ import org.mockito.MockitoAnnotations;
 import reactor.core.publisher.Mono;
 
 import static com.piotrek.diet.helpers.AssertEqualAllFields.assertCartFields;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
@@ -24,6 +25,9 @@ class CartServiceTest {
     @Mock
     private CartDtoConverter cartDtoConverter;
 
+    @Mock
+    private CartCalculator cartCalculator;
+
     @InjectMocks
     private CartService cartService;
 
@@ -52,6 +56,33 @@ class CartServiceTest {
         verifyNoMoreInteractions(cartRepository, cartDtoConverter);
     }
 
+    @Test
+    @DisplayName("Find or create, when cart for the day exists, then return it without creating a new one")
+    void findOrCreate_whenFound_thenReturnExisting() {
+        final var newCart = CartSample.cart1();
+        when(cartRepository.findByUserIdAndDate(user.getId(), cart.getDate())).thenReturn(Mono.just(cart));
+
+        final var block = cartService.findOrCreate(user.getId(), cart.getDate(), Mono.just(newCart)).block();
+
+        assertSame(cart, block);
+        verify(cartRepository, times(1)).findByUserIdAndDate(user.getId(), cart.getDate());
+        verifyNoMoreInteractions(cartRepository, cartDtoConverter);
+    }
+
+    @Test
+    @DisplayName("Find or create, when there is no cart for the day, then insert the new cart if still absent")
+    void findOrCreate_whenNotFound_thenInsertIfAbsent() {
+        when(cartRepository.findByUserIdAndDate(user.getId(), cart.getDate())).thenReturn(Mono.empty());
+        when(cartRepository.insertIfAbsent(cart)).thenReturn(Mono.just(cart));
+
+        final var block = cartService.findOrCreate(user.getId(), cart.getDate(), Mono.just(cart)).block();
+
+        assertSame(cart, block);
+        verify(cartRepository, times(1)).findByUserIdAndDate(user.getId(), cart.getDate());
+        verify(cartRepository, times(1)).insertIfAbsent(cart);
+        verifyNoMoreInteractions(cartRepository, cartDtoConverter);
+    }
+
     @Test
     @DisplayName("Find by userId and date, when not found, then throw NotFoundException")
     void findByUserIdAndDate_whenNotFound_thenThrowNotFoundException() {
@@ -73,6 +104,7 @@ class CartServiceTest {
         assertCartFields(cart, block);
         verify(cartRepository, times(1)).save(cart);
         verify(cartDtoConverter, times(1)).fromDto(cartDto);
+        verify(cartCalculator, times(1)).calculateCartInfo(cart);
         verifyNoMoreInteractions(cartRepository, cartDtoConverter);
     }
 
@@ -83,6 +115,7 @@ class CartServiceTest {
         final Cart block = cartService.save(cart).block();
 
         assertCartFields(cart, block);
+        verify(cartCalculator, times(1)).calculateCartInfo(cart);
         verify(cartRepository, times(1)).save(cart);
         verifyNoMoreInteractions(cartRepository, cartDtoConverter);
     }
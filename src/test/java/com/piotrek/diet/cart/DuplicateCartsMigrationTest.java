@@ -0,0 +1,55 @@
+package com.piotrek.diet.cart;
+
+import com.piotrek.diet.helpers.CartSample;
+import com.piotrek.diet.helpers.MealSample;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.piotrek.diet.helpers.ProductSample.banana;
+import static com.piotrek.diet.helpers.ProductSample.bread;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuplicateCartsMigrationTest {
+
+    @Test
+    @DisplayName("Merge, when carts share items, then keep the first cart and sum the amounts and nutrients of shared items")
+    void merge_whenCartsShareItems_thenSumSharedItemsIntoFirstCart() {
+        final var first = CartSample.cart1();
+        first.getItems().add(CartItem.of(banana()));
+        first.getItems().add(CartItem.of(MealSample.coffee()));
+        final var duplicate = CartSample.cart1();
+        duplicate.getItems().add(CartItem.of(banana()));
+        duplicate.getItems().add(CartItem.of(bread()));
+
+        final var merged = DuplicateCartsMigration.merge(List.of(first, duplicate));
+
+        final var mergedBanana = merged.getItems().get(0);
+        assertAll(
+                () -> assertSame(first, merged),
+                () -> assertEquals(List.of(CartItem.of(banana()), CartItem.of(MealSample.coffee()), CartItem.of(bread())), merged.getItems()),
+                () -> assertEquals(banana().getAmount() * 2, mergedBanana.getAmount()),
+                () -> assertEquals(banana().getKcal() * 2, mergedBanana.getKcal())
+        );
+    }
+
+    @Test
+    @DisplayName("Merge, when the same meal is in both carts, then merge its ingredients too")
+    void merge_whenSameMeal_thenMergeIngredients() {
+        final var meal = MealSample.coffee();
+        meal.getProducts().add(bread());
+        final var first = CartSample.cart1();
+        first.getItems().add(CartItem.of(meal));
+        final var duplicate = CartSample.cart1();
+        duplicate.getItems().add(CartItem.of(meal));
+
+        final var mergedMeal = DuplicateCartsMigration.merge(List.of(first, duplicate)).getItems().get(0);
+
+        assertAll(
+                () -> assertEquals(meal.getAmount() * 2, mergedMeal.getAmount()),
+                () -> assertEquals(List.of(CartItem.of(bread())), mergedMeal.getProducts()),
+                () -> assertEquals(bread().getAmount() * 2, mergedMeal.getProducts().get(0).getAmount())
+        );
+    }
+}
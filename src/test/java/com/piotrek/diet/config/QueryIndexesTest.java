@@ -0,0 +1,83 @@
+package com.piotrek.diet.config;
+
+import com.piotrek.diet.cart.Cart;
+import com.piotrek.diet.cart.CartRepository;
+import com.piotrek.diet.meal.Meal;
+import com.piotrek.diet.meal.MealRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryIndexesTest {
+
+    @Test
+    @DisplayName("Query for, when method has criteria, then return query with the method properties")
+    void queryFor_whenMethodHasCriteria_thenReturnQueryWithProperties() throws Exception {
+        final var method = CartRepository.class.getMethod("findByUserIdAndDate", String.class, LocalDate.class);
+
+        final var query = QueryIndexes.queryFor(method, Cart.class).orElseThrow();
+
+        assertEquals(List.of("userId", "date"), List.copyOf(query.getQueryObject().keySet()));
+    }
+
+    @Test
+    @DisplayName("Query for, when method has Or criteria, then return query with one branch per Or part")
+    void queryFor_whenMethodHasOrCriteria_thenReturnOrQuery() throws Exception {
+        final var method = MealRepository.class.getMethod("findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan",
+                LocalDateTime.class, LocalDateTime.class, String.class, Pageable.class);
+
+        final var query = QueryIndexes.queryFor(method, Meal.class).orElseThrow();
+
+        final var branches = (List<?>) query.getQueryObject().get("$or");
+        final var sameCreatedAtBranch = (List<?>) ((Document) branches.get(1)).get("$and");
+        assertEquals(2, branches.size());
+        assertEquals(List.of("createdAt", "id"), sameCreatedAtBranch
+                .stream()
+                .flatMap(criteria -> ((Document) criteria).keySet().stream())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Query for, when method only sorts, then return query with the method sort")
+    void queryFor_whenMethodOnlySorts_thenReturnQueryWithSort() throws Exception {
+        final var method = MealRepository.class.getMethod("findFirst10ByOrderByFavouriteCounterDesc");
+
+        final var query = QueryIndexes.queryFor(method, Meal.class).orElseThrow();
+
+        assertTrue(query.getQueryObject().isEmpty());
+        assertEquals(new Document("favouriteCounter", -1), query.getSortObject());
+    }
+
+    @Test
+    @DisplayName("Query for, when method pages through the whole collection, then skip it")
+    void queryFor_whenMethodHasNoCriteriaAndSort_thenReturnEmpty() throws Exception {
+        final var method = MealRepository.class.getMethod("findAllBy", Pageable.class);
+
+        assertTrue(QueryIndexes.queryFor(method, Meal.class).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Is collection scan, when winning plan has a COLLSCAN stage, then return true")
+    void isCollectionScan_whenWinningPlanScansCollection_thenReturnTrue() {
+        final var collectionScan = explain(new Document("stage", "SORT")
+                .append("inputStage", new Document("stage", "COLLSCAN")));
+        final var indexScan = explain(new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "IXSCAN")));
+
+        assertTrue(QueryIndexes.isCollectionScan(collectionScan));
+        assertFalse(QueryIndexes.isCollectionScan(indexScan));
+    }
+
+    private static Document explain(Document winningPlan) {
+        return new Document("queryPlanner", new Document("winningPlan", winningPlan)
+                .append("rejectedPlans", List.of(new Document("stage", "COLLSCAN"))));
+    }
+}
@@ -27,8 +27,7 @@ public class AssertEqualAllFields {
                 () -> assertEquals(expected.getTargetUserFat(), actual.getTargetUserFat(),
                         "CART: targetUserFat is not equal"),
                 () -> assertEquals(expected.getDate(), actual.getDate(), "CART: date is not equal"),
-                () -> assertEquals(expected.getMeals(), actual.getMeals(), "CART: mealList is not equal"),
-                () -> assertEquals(expected.getProducts(), actual.getProducts(), "CART: productList is not equal")
+                () -> assertEquals(expected.getItems(), actual.getItems(), "CART: itemList is not equal")
         );
     }
 
@@ -162,7 +161,7 @@ public class AssertEqualAllFields {
                 () -> assertEquals(expected.getFatPerDay(), actual.getFatPerDay(), "fat per day is not equal"),
                 () -> assertEquals(expected.getLastVisit(), actual.getLastVisit(), "last visit is not equal"),
                 () -> assertEquals(expected.getRole(), actual.getRole(), "role is not equal"),
-                () -> assertEquals(expected.getFavouriteMeals().size(), actual.getFavouriteMeals().size(), "favourites list is not equal")
+                () -> assertEquals(expected.getFavouriteMealIds(), actual.getFavouriteMealIds(), "favourites list is not equal")
         );
     }
 
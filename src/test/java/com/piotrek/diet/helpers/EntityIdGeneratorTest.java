@@ -0,0 +1,35 @@
+package com.piotrek.diet.helpers;
+
+import com.piotrek.diet.product.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EntityIdGeneratorTest {
+
+    private final EntityIdGenerator entityIdGenerator = new EntityIdGenerator();
+
+    @Test
+    @DisplayName("On before convert, when entity has no id, then give it a UUID string id")
+    void onBeforeConvert_whenNoId_thenSetUuid() {
+        final var product = new Product();
+
+        entityIdGenerator.onBeforeConvert(new BeforeConvertEvent<>(product, "product"));
+
+        assertEquals(product.getId(), UUID.fromString(product.getId()).toString());
+    }
+
+    @Test
+    @DisplayName("On before convert, when entity has an id, then keep it")
+    void onBeforeConvert_whenIdSet_thenKeepIt() {
+        final var product = new Product("5c0a7e8b1f2e4a3b4c5d6e7f");
+
+        entityIdGenerator.onBeforeConvert(new BeforeConvertEvent<>(product, "product"));
+
+        assertEquals("5c0a7e8b1f2e4a3b4c5d6e7f", product.getId());
+    }
+}
@@ -0,0 +1,56 @@
+package com.piotrek.diet.helpers;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzySearchTest {
+
+    @Test
+    @DisplayName("Trigrams, when text has diacritics and several words, then return trigrams of every normalised word")
+    void trigrams_whenTextHasDiacriticsAndWords_thenReturnNormalisedTrigrams() {
+        assertEquals(Set.of("  m", " ma", "mas", "asl", "slo", "lo "), FuzzySearch.trigrams("Masło"));
+        assertTrue(FuzzySearch.trigrams("Chleb razowy").containsAll(Set.of(" ch", "leb", " ra", "owy")));
+    }
+
+    @Test
+    @DisplayName("Aggregation, when query has trigrams, then rank matches above threshold in the database and page them")
+    void aggregation_whenQueryHasTrigrams_thenRankAndPageInDatabase() {
+        final var pipeline = FuzzySearch.aggregation(FuzzySearch.trigrams("chlep"), PageRequest.of(2, 10))
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertEquals(List.of("$match", "$addFields", "$match", "$facet"), pipeline
+                .stream()
+                .map(stage -> stage.keySet().iterator().next())
+                .collect(Collectors.toList()));
+        assertEquals(new Document("similarity", new Document("$gte", FuzzySearch.SIMILARITY_THRESHOLD)), pipeline.get(2).get("$match"));
+        final var facet = (Document) pipeline.get(3).get("$facet");
+        assertEquals(List.of(new Document("$sort", new Document("similarity", -1).append("_id", 1)),
+                new Document("$skip", 20L), new Document("$limit", 10L)), facet.get("content"));
+        assertEquals(List.of(new Document("$count", "total")), facet.get("total"));
+    }
+
+    @Test
+    @DisplayName("Cursor aggregation, when cursor is given, then keep matches after the cursor in cursor page order")
+    void cursorAggregation_whenCursorGiven_thenKeepMatchesAfterCursorInOrder() {
+        final var afterCursor = new Document("createdAt", new Document("$gt", 0));
+        final var pipeline = FuzzySearch.cursorAggregation(FuzzySearch.trigrams("chlep"), afterCursor, 11)
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertEquals(List.of("$match", "$match", "$addFields", "$match", "$sort", "$limit"), pipeline
+                .stream()
+                .map(stage -> stage.keySet().iterator().next())
+                .collect(Collectors.toList()));
+        assertEquals(afterCursor, pipeline.get(1).get("$match"));
+        assertEquals(new Document("createdAt", 1).append("_id", 1), pipeline.get(4).get("$sort"));
+        assertEquals(11L, pipeline.get(5).get("$limit"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.piotrek.diet.helpers;
+
+import com.piotrek.diet.product.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NutrientVectorTest {
+
+    @Test
+    @DisplayName("Sum, when products are given, then every nutrient is summed")
+    void sum_whenProducts_thenSumEveryNutrient() {
+        final var banana = new Product();
+        banana.setNutrients(NutrientVector.of(1.0, 21.8, 0.3, 1.7, 97.0, 2.01, 0.12));
+        final var bread = new Product();
+        bread.setNutrients(NutrientVector.of(4.9, 43.0, 1.6, 0.0, 216.0, 4.3, 0.34));
+
+        final var total = NutrientVector.sum(List.of(banana, bread), Product::nutrients);
+
+        assertEquals(NutrientVector.of(5.9, 64.8, 1.9, 1.7, 313.0, 6.31, 0.46), total);
+    }
+
+    @Test
+    @DisplayName("Scale, when vector is scaled, then return new vector and keep the original")
+    void scale_whenScaled_thenReturnNewVector() {
+        final var nutrients = NutrientVector.of(10, 20, 30, 40, 97, 1.5, 2.5);
+
+        final var scaled = nutrients.scale(80, 100);
+
+        assertAll(
+                () -> assertEquals(NutrientVector.of(8, 16, 24, 32, 77.6, 1.2, 2), scaled),
+                () -> assertEquals(NutrientVector.of(10, 20, 30, 40, 97, 1.5, 2.5), nutrients)
+        );
+    }
+
+    @Test
+    @DisplayName("Add, when vectors are added, then accumulate in place")
+    void add_whenAdded_thenAccumulateInPlace() {
+        final var nutrients = NutrientVector.of(0.1, 0, 0, 0, 0, 0, 0);
+
+        final var result = nutrients.add(NutrientVector.of(0.2, 0, 0, 0, 1, 0, 0));
+
+        assertSame(nutrients, result);
+        assertEquals(0.3, nutrients.protein());
+        assertEquals(1.0, nutrients.kcal());
+    }
+}
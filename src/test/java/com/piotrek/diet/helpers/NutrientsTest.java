@@ -0,0 +1,37 @@
+package com.piotrek.diet.helpers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NutrientsTest {
+
+    @Test
+    @DisplayName("Sum, when values are not exact in binary, then total is exact")
+    void add_whenValuesNotExactInBinary_thenTotalIsExact() {
+        var total = 0L;
+        for (int i = 0; i < 10; i++)
+            total = Nutrients.add(total, Nutrients.of(0.1));
+
+        assertEquals(1.0, Nutrients.toDouble(total));
+        assertEquals(0.3, Nutrients.toDouble(Nutrients.add(Nutrients.of(0.1), Nutrients.of(0.2))));
+    }
+
+    @Test
+    @DisplayName("Scale, when chained, then round only the result to two decimal places")
+    void scale_whenChained_thenRoundOnlyResult() {
+        final var perGram = Nutrients.scale(Nutrients.of(1.0), 1, 3);
+        final var portion = Nutrients.scale(perGram, 3, 1);
+
+        assertEquals(0.33, Nutrients.toDouble(perGram));
+        assertEquals(1.0, Nutrients.toDouble(portion));
+        assertEquals(77.6, Nutrients.toDouble(Nutrients.scale(Nutrients.of(97.0), 80, 100)));
+    }
+
+    @Test
+    @DisplayName("Scale, when denominator is zero, then return zero")
+    void scale_whenDenominatorIsZero_thenReturnZero() {
+        assertEquals(0.0, Nutrients.toDouble(Nutrients.scale(Nutrients.of(97.0), 50, 0)));
+    }
+}
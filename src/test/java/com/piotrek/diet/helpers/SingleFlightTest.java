@@ -0,0 +1,66 @@
+package com.piotrek.diet.helpers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("Execute, when two concurrent calls for the same key, then run the lookup once and share the result")
+    void execute_whenConcurrentCallsForSameKey_thenRunLookupOnce() {
+        final var singleFlight = new SingleFlight<String, StringBuilder>(value -> new StringBuilder(value));
+        final var lookups = new AtomicInteger();
+        final var pending = MonoProcessor.<StringBuilder>create();
+
+        final var first = singleFlight.execute("key", () -> {
+            lookups.incrementAndGet();
+            return pending;
+        }).toFuture();
+        final var second = singleFlight.execute("key", () -> {
+            lookups.incrementAndGet();
+            return pending;
+        }).toFuture();
+        final var loaded = new StringBuilder("value");
+        pending.onNext(loaded);
+
+        assertEquals("value", first.join().toString());
+        assertEquals("value", second.join().toString());
+        assertNotSame(first.join(), second.join());
+        assertNotSame(loaded, first.join());
+        assertNotSame(loaded, second.join());
+        assertEquals(1, lookups.get());
+        assertEquals(1, singleFlight.getExecutedCount());
+        assertEquals(1, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("Execute, when previous lookup has finished, then run a new lookup")
+    void execute_whenPreviousLookupFinished_thenRunNewLookup() {
+        final var singleFlight = new SingleFlight<String, Integer>();
+        final var lookups = new AtomicInteger();
+
+        final var first = singleFlight.execute("key", () -> Mono.just(lookups.incrementAndGet())).block();
+        final var second = singleFlight.execute("key", () -> Mono.just(lookups.incrementAndGet())).block();
+
+        assertEquals(Integer.valueOf(1), first);
+        assertEquals(Integer.valueOf(2), second);
+        assertEquals(2, singleFlight.getExecutedCount());
+        assertEquals(0, singleFlight.getCoalescedCount());
+    }
+
+    @Test
+    @DisplayName("Execute, when lookup fails, then propagate the error and retry on the next call")
+    void execute_whenLookupFails_thenRetryOnNextCall() {
+        final var singleFlight = new SingleFlight<String, Integer>();
+
+        assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("key", () -> Mono.error(new IllegalStateException())).block());
+        assertEquals(Integer.valueOf(1), singleFlight.execute("key", () -> Mono.just(1)).block());
+    }
+}
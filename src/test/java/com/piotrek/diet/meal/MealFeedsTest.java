@@ -0,0 +1,92 @@
+package com.piotrek.diet.meal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.piotrek.diet.helpers.MealSample.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class MealFeedsTest {
+
+    @Mock
+    private MealRepository mealRepository;
+
+    @Mock
+    private MealDtoConverter mealDtoConverter;
+
+    private MealFeeds mealFeeds;
+
+    @BeforeEach
+    void beforeEach() {
+        MockitoAnnotations.initMocks(this);
+        mealFeeds = new MealFeeds(mealRepository, mealDtoConverter, Duration.ofMinutes(1));
+        when(mealDtoConverter.toDto(dumplings())).thenReturn(dumplingsDto());
+        when(mealDtoConverter.toDto(coffee())).thenReturn(coffeeDto());
+    }
+
+    @Test
+    @DisplayName("Top favourites, when read twice within staleness bound, then query repository once")
+    void topFavourites_whenReadTwice_thenQueryRepositoryOnce() {
+        when(mealRepository.findFirst10ByOrderByFavouriteCounterDesc()).thenReturn(Flux.just(dumplings(), coffee()));
+
+        final var first = mealFeeds.topFavourites().collectList().block();
+        final var second = mealFeeds.topFavourites().collectList().block();
+
+        assertEquals(List.of(dumplingsDto(), coffeeDto()), first);
+        assertEquals(first, second);
+        verify(mealRepository, times(1)).findFirst10ByOrderByFavouriteCounterDesc();
+        verifyNoMoreInteractions(mealRepository);
+    }
+
+    @Test
+    @DisplayName("Latest, when invalidated between reads, then query repository again")
+    void latest_whenInvalidated_thenQueryRepositoryAgain() {
+        when(mealRepository.findFirst10ByOrderByCreatedAtDesc()).thenReturn(Flux.just(dumplings())).thenReturn(Flux.just(coffee(), dumplings()));
+
+        final var beforeInvalidation = mealFeeds.latest().collectList().block();
+        mealFeeds.invalidate();
+        final var afterInvalidation = mealFeeds.latest().collectList().block();
+
+        assertEquals(List.of(dumplingsDto()), beforeInvalidation);
+        assertEquals(List.of(coffeeDto(), dumplingsDto()), afterInvalidation);
+        verify(mealRepository, times(2)).findFirst10ByOrderByCreatedAtDesc();
+        verifyNoMoreInteractions(mealRepository);
+    }
+
+    @Test
+    @DisplayName("Latest, when snapshot is older than staleness bound, then query repository again")
+    void latest_whenSnapshotIsStale_thenQueryRepositoryAgain() throws InterruptedException {
+        mealFeeds = new MealFeeds(mealRepository, mealDtoConverter, Duration.ofMillis(1));
+        when(mealRepository.findFirst10ByOrderByCreatedAtDesc()).thenReturn(Flux.just(dumplings()));
+
+        mealFeeds.latest().collectList().block();
+        Thread.sleep(100);
+        mealFeeds.latest().collectList().block();
+
+        verify(mealRepository, times(2)).findFirst10ByOrderByCreatedAtDesc();
+        verifyNoMoreInteractions(mealRepository);
+    }
+
+    @Test
+    @DisplayName("Top favourites, when loading failed, then query repository again on the next read")
+    void topFavourites_whenLoadingFailed_thenQueryRepositoryAgain() {
+        when(mealRepository.findFirst10ByOrderByFavouriteCounterDesc())
+                .thenReturn(Flux.error(new IllegalStateException())).thenReturn(Flux.just(coffee()));
+
+        assertThrows(IllegalStateException.class, () -> mealFeeds.topFavourites().collectList().block());
+        final var afterFailure = mealFeeds.topFavourites().collectList().block();
+
+        assertEquals(List.of(coffeeDto()), afterFailure);
+        verify(mealRepository, times(2)).findFirst10ByOrderByFavouriteCounterDesc();
+        verifyNoMoreInteractions(mealRepository);
+    }
+}
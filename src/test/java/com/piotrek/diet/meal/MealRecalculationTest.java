@@ -0,0 +1,120 @@
+package com.piotrek.diet.meal;
+
+import com.piotrek.diet.cloud.CloudStorageService;
+import com.piotrek.diet.product.ProductDtoConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.piotrek.diet.helpers.MealSample.dumplings;
+import static com.piotrek.diet.helpers.ProductSample.banana;
+import static com.piotrek.diet.helpers.ProductSample.bread;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MealRecalculationTest {
+
+    @Mock
+    private MealRepository mealRepository;
+
+    @Mock
+    private MealDtoConverter mealDtoConverter;
+
+    @Mock
+    private ProductDtoConverter productDtoConverter;
+
+    @Mock
+    private CloudStorageService imageStorage;
+
+    @Mock
+    private MealFeeds mealFeeds;
+
+    private MealRecalculation mealRecalculation;
+
+    @BeforeEach
+    void beforeEach() {
+        MockitoAnnotations.initMocks(this);
+        var mealService = new MealService(mealRepository, mealDtoConverter, productDtoConverter, imageStorage, mealFeeds);
+        mealRecalculation = new MealRecalculation(mealRepository, mealService, mealFeeds, 2, 1, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Recalculate, when product is corrected, then write meals with the corrected product in batches")
+    @SuppressWarnings("unchecked")
+    void recalculate_whenProductCorrected_thenWriteMealsInBatches() {
+        final var corrected = bread();
+        corrected.setKcal(300.0);
+        final var meals = List.of(mealWithBreadAndBanana(), mealWithBreadAndBanana(), mealWithBreadAndBanana());
+        final ArgumentCaptor<List<Meal>> batches = ArgumentCaptor.forClass(List.class);
+        when(mealRepository.findAllByProductsId(corrected.getId())).thenReturn(Flux.fromIterable(meals));
+        when(mealRepository.updateNutrients(eq(corrected), anyList()))
+                .thenAnswer(invocation -> Mono.just((long) invocation.<List<Meal>>getArgument(1).size()));
+
+        final var recalculated = mealRecalculation.recalculate(corrected).block();
+
+        assertEquals(Long.valueOf(3), recalculated);
+        verify(mealRepository, times(2)).updateNutrients(eq(corrected), batches.capture());
+        assertEquals(List.of(2, 1), List.of(batches.getAllValues().get(0).size(), batches.getAllValues().get(1).size()));
+        meals.forEach(meal -> assertAll(
+                () -> assertEquals(300.0, meal.getProducts().get(0).getKcal()),
+                () -> assertEquals(bread().getAmount(), meal.getProducts().get(0).getAmount()),
+                () -> assertEquals(banana().getKcal(), meal.getProducts().get(1).getKcal()),
+                () -> assertEquals((300.0 * bread().getAmount() + banana().getKcal() * banana().getAmount())
+                        / (bread().getAmount() + banana().getAmount()), meal.getKcal(), 0.01)
+        ));
+        verify(mealFeeds, times(1)).invalidate();
+    }
+
+    @Test
+    @DisplayName("Recalculate, when no meal has the product, then write nothing")
+    void recalculate_whenNoMealHasProduct_thenWriteNothing() {
+        final var corrected = bread();
+        when(mealRepository.findAllByProductsId(corrected.getId())).thenReturn(Flux.empty());
+
+        assertEquals(Long.valueOf(0), mealRecalculation.recalculate(corrected).block());
+        verify(mealRepository, never()).updateNutrients(any(), anyList());
+    }
+
+    @Test
+    @DisplayName("Recalculate, when meal was changed during the write, then read it again and write it in another attempt")
+    void recalculate_whenMealChangedDuringWrite_thenRetryIt() {
+        final var corrected = bread();
+        corrected.setKcal(300.0);
+        final var written = mealWithBreadAndBanana();
+        written.setId("written");
+        final var changed = mealWithBreadAndBanana();
+        changed.setId("changed");
+        final var changedAgain = mealWithBreadAndBanana();
+        changedAgain.setId("changed");
+        changedAgain.setRevision(2L);
+        final var writtenAgain = mealWithBreadAndBanana();
+        writtenAgain.setId("written");
+        writtenAgain.getProducts().get(0).setKcal(300.0);
+        when(mealRepository.findAllByProductsId(corrected.getId())).thenReturn(Flux.just(written, changed));
+        when(mealRepository.updateNutrients(corrected, List.of(written, changed))).thenReturn(Mono.just(1L));
+        when(mealRepository.findAllById(List.of("written", "changed"))).thenReturn(Flux.just(writtenAgain, changedAgain));
+        when(mealRepository.updateNutrients(corrected, List.of(changedAgain))).thenReturn(Mono.just(1L));
+
+        final var recalculated = mealRecalculation.recalculate(corrected).block();
+
+        assertEquals(Long.valueOf(2), recalculated);
+        assertEquals(300.0, changedAgain.getProducts().get(0).getKcal());
+        verify(mealRepository, times(1)).updateNutrients(corrected, List.of(changedAgain));
+    }
+
+    private Meal mealWithBreadAndBanana() {
+        var meal = dumplings();
+        meal.setProducts(new ArrayList<>(Arrays.asList(bread(), banana())));
+        return meal;
+    }
+}
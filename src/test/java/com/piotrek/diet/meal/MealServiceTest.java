@@ -1,23 +1,27 @@
 package com.piotrek.diet.meal;
 
 import com.piotrek.diet.cloud.CloudStorageService;
+import com.piotrek.diet.helpers.Cursor;
+import com.piotrek.diet.helpers.CursorPage;
 import com.piotrek.diet.helpers.MealSample;
 import com.piotrek.diet.helpers.Page;
 import com.piotrek.diet.helpers.UserSample;
 import com.piotrek.diet.exceptions.NotFoundException;
+import com.piotrek.diet.product.Product;
 import com.piotrek.diet.product.ProductDtoConverter;
-import org.decimal4j.util.DoubleRounder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -41,7 +45,8 @@ class MealServiceTest {
     @Mock
     private CloudStorageService imageStorage;
 
-    private DoubleRounder doubleRounder = new DoubleRounder(2);
+    @Mock
+    private MealFeeds mealFeeds;
 
     private MealService mealService;
 
@@ -51,7 +56,7 @@ class MealServiceTest {
     @BeforeEach
     void beforeEach() {
         MockitoAnnotations.initMocks(this);
-        mealService = new MealService(mealRepository, mealDtoConverter, productDtoConverter, doubleRounder, imageStorage);
+        mealService = new MealService(mealRepository, mealDtoConverter, productDtoConverter, imageStorage, mealFeeds);
         meal = dumplings();
         mealDto = dumplingsDto();
     }
@@ -118,15 +123,70 @@ class MealServiceTest {
                 .limit(pageSize)
                 .collect(Collectors.toList()), page, pageSize, totalElements);
 
-        when(mealRepository.findAllByNameIgnoreCaseContaining(query)).thenReturn(Flux.fromIterable(mealList));
+        when(mealRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just((long) totalElements));
+        when(mealRepository.countAllBySearchNameStartingWith(query)).thenReturn(Mono.just(0L));
+        when(mealRepository.fuzzySearchByName(query, PageRequest.of(page, pageSize)))
+                .thenReturn(Mono.just(new Page<>(mealList, page, pageSize, totalElements)));
 
         final var actualPage = mealService.searchByName(PageRequest.of(page, pageSize), query).block();
 
         assertEquals(expected, actualPage);
-        verify(mealRepository, times(1)).findAllByNameIgnoreCaseContaining(query);
+        verify(mealRepository, times(1)).countAllBySearchNameStartingWith(query);
+        verify(mealRepository, times(1)).fuzzySearchByName(query, PageRequest.of(page, pageSize));
+        verify(mealRepository, times(1)).countAllBy(any(TextCriteria.class));
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
 
+    @Test
+    @DisplayName("Search meals by name, when query has a typo and no diacritics, then return fuzzy matched meals")
+    void searchByName_whenQueryHasTypo_thenReturnFuzzyMatchedMeals() {
+        final var page = 0;
+        final var pageSize = 10;
+        final var query = "kawa z czekolda";
+        final var coffee = coffee();
+        final var expected = new Page<>(List.of(coffeeDto()), page, pageSize, 1);
+
+        when(mealRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just(0L));
+        when(mealRepository.countAllBySearchNameStartingWith(query)).thenReturn(Mono.just(0L));
+        when(mealRepository.fuzzySearchByName(query, PageRequest.of(page, pageSize)))
+                .thenReturn(Mono.just(new Page<>(List.of(coffee), page, pageSize, 1)));
+        when(mealDtoConverter.toDto(coffee)).thenReturn(coffeeDto());
+
+        final var actualPage = mealService.searchByName(PageRequest.of(page, pageSize), query).block();
+
+        assertEquals(expected, actualPage);
+        verify(mealRepository, times(1)).countAllBy(any(TextCriteria.class));
+        verify(mealRepository, times(1)).countAllBySearchNameStartingWith(query);
+        verify(mealRepository, times(1)).fuzzySearchByName(query, PageRequest.of(page, pageSize));
+        verify(mealDtoConverter, times(1)).toDto(coffee);
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
+    }
+
+
+    @Test
+    @DisplayName("Search meals by name, when query is a partial word, then return meals whose name starts with it")
+    void searchByName_whenQueryIsPartialWord_thenReturnMealsStartingWithIt() {
+        final var page = 0;
+        final var pageSize = 10;
+        final var query = "Kaw";
+        final var coffee = coffee();
+        final var expected = new Page<>(List.of(coffeeDto()), page, pageSize, 1);
+
+        when(mealRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just(0L));
+        when(mealRepository.countAllBySearchNameStartingWith("kaw")).thenReturn(Mono.just(1L));
+        when(mealRepository.findAllBySearchNameStartingWithOrderBySearchName("kaw", PageRequest.of(page, pageSize)))
+                .thenReturn(Flux.just(coffee));
+        when(mealDtoConverter.toDto(coffee)).thenReturn(coffeeDto());
+
+        final var actualPage = mealService.searchByName(PageRequest.of(page, pageSize), query).block();
+
+        assertEquals(expected, actualPage);
+        verify(mealRepository, times(1)).countAllBy(any(TextCriteria.class));
+        verify(mealRepository, times(1)).countAllBySearchNameStartingWith("kaw");
+        verify(mealRepository, times(1)).findAllBySearchNameStartingWithOrderBySearchName("kaw", PageRequest.of(page, pageSize));
+        verify(mealDtoConverter, times(1)).toDto(coffee);
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
+    }
     @Test
     @DisplayName("Search meals, when found 2 meals, return page with 2 meals")
     void searchByName_whenFoundTwoMeals_thenReturnPageWithTwoMeals() {
@@ -141,13 +201,15 @@ class MealServiceTest {
                 .limit(pageSize)
                 .collect(Collectors.toList()), page, pageSize, totalElements);
 
-        when(mealRepository.findAllByNameIgnoreCaseContaining(query)).thenReturn(Flux.fromIterable(mealList));
+        when(mealRepository.findAllByOrderByScoreDesc(any(TextCriteria.class), eq(PageRequest.of(page, pageSize)))).thenReturn(Flux.fromIterable(mealList));
+        when(mealRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just((long) totalElements));
         when(mealDtoConverter.toDto(coffee())).thenReturn(coffeeDto());
 
         final var actualPage = mealService.searchByName(PageRequest.of(page, pageSize), query).block();
 
         assertEquals(expected, actualPage);
-        verify(mealRepository, times(1)).findAllByNameIgnoreCaseContaining(query);
+        verify(mealRepository, times(1)).findAllByOrderByScoreDesc(any(TextCriteria.class), eq(PageRequest.of(page, pageSize)));
+        verify(mealRepository, times(1)).countAllBy(any(TextCriteria.class));
         verify(mealDtoConverter, times(2)).toDto(coffee());
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
@@ -172,13 +234,16 @@ class MealServiceTest {
                 .limit(pageSize)
                 .collect(Collectors.toList()), page, pageSize, totalElementsMatchesToQuery);
 
-        when(mealRepository.findAllByNameIgnoreCaseContaining(query)).thenReturn(Flux.fromIterable(mealList.subList(0, totalElementsMatchesToQuery)));
+        when(mealRepository.findAllByOrderByScoreDesc(any(TextCriteria.class), eq(PageRequest.of(page, pageSize))))
+                .thenReturn(Flux.fromIterable(mealList.subList(page * pageSize, Math.min((page + 1) * pageSize, totalElementsMatchesToQuery))));
+        when(mealRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just((long) totalElementsMatchesToQuery));
         when(mealDtoConverter.toDto(coffee())).thenReturn(coffeeDto());
 
         final var firstPage = mealService.searchByName(PageRequest.of(page, pageSize), query).block();
 
         assertEquals(expected, firstPage);
-        verify(mealRepository, times(1)).findAllByNameIgnoreCaseContaining(query);
+        verify(mealRepository, times(1)).findAllByOrderByScoreDesc(any(TextCriteria.class), eq(PageRequest.of(page, pageSize)));
+        verify(mealRepository, times(1)).countAllBy(any(TextCriteria.class));
         verify(mealDtoConverter, times(pageSize)).toDto(coffee());
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
@@ -203,13 +268,16 @@ class MealServiceTest {
                 .limit(totalElementsMatchesToQuery - page * pageSize)
                 .collect(Collectors.toList()), page, pageSize, totalElementsMatchesToQuery);
 
-        when(mealRepository.findAllByNameIgnoreCaseContaining(query)).thenReturn(Flux.fromIterable(mealList.subList(0, totalElementsMatchesToQuery)));
+        when(mealRepository.findAllByOrderByScoreDesc(any(TextCriteria.class), eq(PageRequest.of(page, pageSize))))
+                .thenReturn(Flux.fromIterable(mealList.subList(page * pageSize, Math.min((page + 1) * pageSize, totalElementsMatchesToQuery))));
+        when(mealRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just((long) totalElementsMatchesToQuery));
         when(mealDtoConverter.toDto(coffee())).thenReturn(coffeeDto());
 
         final var firstPage = mealService.searchByName(PageRequest.of(page, pageSize), query).block();
 
         assertEquals(expected, firstPage);
-        verify(mealRepository, times(1)).findAllByNameIgnoreCaseContaining(query);
+        verify(mealRepository, times(1)).findAllByOrderByScoreDesc(any(TextCriteria.class), eq(PageRequest.of(page, pageSize)));
+        verify(mealRepository, times(1)).countAllBy(any(TextCriteria.class));
         verify(mealDtoConverter, times(2)).toDto(coffee());
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
@@ -229,14 +297,16 @@ class MealServiceTest {
                 .collect(Collectors.toList()), page, pageSize, totalElements);
         final var user = UserSample.john();
 
-        when(mealRepository.findAllByUserId(user.getId())).thenReturn(Flux.fromIterable(mealList));
+        when(mealRepository.findAllByUserId(user.getId(), PageRequest.of(page, pageSize))).thenReturn(Flux.fromIterable(mealList));
+        when(mealRepository.countAllByUserId(user.getId())).thenReturn(Mono.just((long) totalElements));
         when(mealDtoConverter.toDto(MealSample.dumplings())).thenReturn(MealSample.dumplingsDto());
 
         final var actualPage = mealService.findAllByUserId(user.getId(), PageRequest.of(page, pageSize)).block();
 
         assertNotNull(actualPage);
         assertEquals(expected, actualPage);
-        verify(mealRepository, times(1)).findAllByUserId(user.getId());
+        verify(mealRepository, times(1)).findAllByUserId(user.getId(), PageRequest.of(page, pageSize));
+        verify(mealRepository, times(1)).countAllByUserId(user.getId());
         verify(mealDtoConverter, times(totalElements)).toDto(MealSample.dumplings());
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
@@ -254,13 +324,15 @@ class MealServiceTest {
                 .collect(Collectors.toList()), page, pageSize, totalElements);
         final var user = UserSample.john();
 
-        when(mealRepository.findAllByUserId(user.getId())).thenReturn(Flux.empty());
+        when(mealRepository.findAllByUserId(user.getId(), PageRequest.of(page, pageSize))).thenReturn(Flux.empty());
+        when(mealRepository.countAllByUserId(user.getId())).thenReturn(Mono.just((long) totalElements));
 
         final var actualPage = mealService.findAllByUserId(user.getId(), PageRequest.of(page, pageSize)).block();
 
         assertNotNull(actualPage);
         assertEquals(expected, actualPage);
-        verify(mealRepository, times(1)).findAllByUserId(user.getId());
+        verify(mealRepository, times(1)).findAllByUserId(user.getId(), PageRequest.of(page, pageSize));
+        verify(mealRepository, times(1)).countAllByUserId(user.getId());
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
 
@@ -278,13 +350,16 @@ class MealServiceTest {
                 .limit(pageSize)
                 .collect(Collectors.toList()), page, pageSize, totalElements);
 
-        when(mealRepository.findAll()).thenReturn(Flux.fromIterable(mealList));
+        when(mealRepository.findAllBy(PageRequest.of(page, pageSize)))
+                .thenReturn(Flux.fromIterable(mealList.subList(page * pageSize, (page + 1) * pageSize)));
+        when(mealRepository.count()).thenReturn(Mono.just((long) totalElements));
         when(mealDtoConverter.toDto(dumplings())).thenReturn(dumplingsDto());
 
         final var actualFirstPage = mealService.findAllPageable(PageRequest.of(page, pageSize)).block();
 
         assertEquals(expected, actualFirstPage);
-        verify(mealRepository, times(1)).findAll();
+        verify(mealRepository, times(1)).findAllBy(PageRequest.of(page, pageSize));
+        verify(mealRepository, times(1)).count();
         verify(mealDtoConverter, times(10)).toDto(dumplings());
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
@@ -303,13 +378,16 @@ class MealServiceTest {
                 .limit(pageSize)
                 .collect(Collectors.toList()), page, pageSize, totalElements);
 
-        when(mealRepository.findAll()).thenReturn(Flux.fromIterable(mealList));
+        when(mealRepository.findAllBy(PageRequest.of(page, pageSize)))
+                .thenReturn(Flux.fromIterable(mealList.subList(page * pageSize, (page + 1) * pageSize)));
+        when(mealRepository.count()).thenReturn(Mono.just((long) totalElements));
         when(mealDtoConverter.toDto(dumplings())).thenReturn(dumplingsDto());
 
         final var actualSecondPage = mealService.findAllPageable(PageRequest.of(page, pageSize)).block();
 
         assertEquals(expected, actualSecondPage);
-        verify(mealRepository, times(1)).findAll();
+        verify(mealRepository, times(1)).findAllBy(PageRequest.of(page, pageSize));
+        verify(mealRepository, times(1)).count();
         verify(mealDtoConverter, times(10)).toDto(dumplings());
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
@@ -328,12 +406,52 @@ class MealServiceTest {
                 .limit(pageSize)
                 .collect(Collectors.toList()), page, pageSize, totalElements);
 
-        when(mealRepository.findAll()).thenReturn(Flux.fromIterable(mealLis));
+        when(mealRepository.findAllBy(PageRequest.of(page, pageSize))).thenReturn(Flux.fromIterable(mealLis));
+        when(mealRepository.count()).thenReturn(Mono.just((long) totalElements));
 
         final var firstPage = mealService.findAllPageable(PageRequest.of(page, pageSize)).block();
 
         assertEquals(expected, firstPage);
-        verify(mealRepository, times(1)).findAll();
+        verify(mealRepository, times(1)).findAllBy(PageRequest.of(page, pageSize));
+        verify(mealRepository, times(1)).count();
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
+    }
+
+    @Test
+    @DisplayName("Find all meals by cursor, when first page and more meals than page size, then return page with next cursor")
+    void findAllByCursor_whenFirstPageAndMoreMeals_thenReturnPageWithNextCursor() {
+        final var pageSize = 10;
+        final var mealList = createMealList(pageSize + 1, DUMPLINGS);
+
+        when(mealRepository.findAllBy(Cursor.pageRequest(pageSize))).thenReturn(Flux.fromIterable(mealList));
+        when(mealDtoConverter.toDto(dumplings())).thenReturn(dumplingsDto());
+
+        final var actualPage = mealService.findAllByCursor(Cursor.FIRST_PAGE_CURSOR, pageSize).block();
+
+        assertNotNull(actualPage);
+        assertEquals(pageSize, actualPage.getContent().size());
+        assertEquals(Cursor.first().next(mealList.subList(0, pageSize)).encode(), actualPage.getNextCursor());
+        verify(mealRepository, times(1)).findAllBy(Cursor.pageRequest(pageSize));
+        verify(mealDtoConverter, times(pageSize)).toDto(dumplings());
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
+    }
+
+    @Test
+    @DisplayName("Find all meals by cursor, when cursor is given, then query meals after cursor")
+    void findAllByCursor_whenCursorGiven_thenReturnMealsAfterCursor() {
+        final var pageSize = 10;
+        final var cursor = Cursor.first().next(List.of(dumplings()));
+
+        when(mealRepository.findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(cursor.getCreatedAt(), cursor.getCreatedAt(), cursor.getLastId(), Cursor.pageRequest(pageSize)))
+                .thenReturn(Flux.just(coffee()));
+        when(mealDtoConverter.toDto(coffee())).thenReturn(coffeeDto());
+
+        final var actualPage = mealService.findAllByCursor(cursor.encode(), pageSize).block();
+
+        assertEquals(new CursorPage<>(List.of(coffeeDto()), pageSize, null), actualPage);
+        verify(mealRepository, times(1))
+                .findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(cursor.getCreatedAt(), cursor.getCreatedAt(), cursor.getLastId(), Cursor.pageRequest(pageSize));
+        verify(mealDtoConverter, times(1)).toDto(coffee());
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
 
@@ -346,7 +464,8 @@ class MealServiceTest {
 
         assertMealFields(meal, savedMeal);
         verify(mealRepository, times(1)).save(meal);
-        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
+        verify(mealFeeds, times(1)).invalidate();
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter, mealFeeds);
     }
 
     @Test
@@ -360,25 +479,52 @@ class MealServiceTest {
         assertMealFields(meal, savedMeal);
         verify(mealRepository, times(1)).save(meal);
         verify(mealDtoConverter, times(1)).fromDto(mealDto);
-        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
+        verify(mealFeeds, times(1)).invalidate();
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter, mealFeeds);
+    }
+
+    @Test
+    @DisplayName("Increment favourite counter, then increment it in the repository and invalidate the feeds")
+    void incrementFavouriteCounter() {
+        when(mealRepository.incrementFavouriteCounter(meal.getId(), -1)).thenReturn(Mono.empty());
+
+        mealService.incrementFavouriteCounter(meal.getId(), -1).block();
+
+        verify(mealRepository, times(1)).incrementFavouriteCounter(meal.getId(), -1);
+        verify(mealFeeds, times(1)).invalidate();
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter, mealFeeds);
+    }
+
+    @Test
+    @DisplayName("Find all by ids, then return meals with given ids loaded in one query")
+    void findAllByIds() {
+        final var ids = List.of(meal.getId());
+        when(mealRepository.findAllById(ids)).thenReturn(Flux.just(meal));
+
+        assertEquals(List.of(meal), mealService.findAllByIds(ids).collectList().block());
+        verify(mealRepository, times(1)).findAllById(ids);
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter, mealFeeds);
     }
 
     @Test
     @DisplayName("Deleted all meals, then return Mono.empty()")
     void deleteAll() {
-        assertEquals(Mono.empty().block(), mealService.deleteAll());
+        when(mealRepository.deleteAll()).thenReturn(Mono.empty());
 
+        assertNull(mealService.deleteAll().block());
         verify(mealRepository, times(1)).deleteAll();
-        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
+        verify(mealFeeds, times(1)).invalidate();
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter, mealFeeds);
     }
 
     @Test
     @DisplayName("Delete meal by id, then Mono.empty()")
     void deleteById() {
-        when(mealRepository.findById(meal.getId())).thenReturn(Mono.just(meal));
+        when(mealRepository.deleteById(meal.getId())).thenReturn(Mono.empty());
 
-        assertEquals(Mono.empty().block(), mealService.deleteById(meal.getId()));
+        assertNull(mealService.deleteById(meal.getId()).block());
         verify(mealRepository, times(1)).deleteById(meal.getId());
+        verify(mealFeeds, times(1)).invalidate();
     }
 
     @Test
@@ -388,7 +534,7 @@ class MealServiceTest {
         expectedMeal.setProducts(new ArrayList<>());
 
         when(mealRepository.findById(meal.getId())).thenReturn(Mono.just(meal));
-        when(mealRepository.save(meal)).thenReturn(Mono.just(meal));
+        when(mealRepository.updateDetails(meal)).thenReturn(Mono.just(meal));
         when(mealDtoConverter.toDto(meal)).thenReturn(expectedMeal);
 //        when(productDtoConverter.listFromDto(new ArrayList<>())).thenReturn(new ArrayList<>());
 
@@ -396,7 +542,7 @@ class MealServiceTest {
 
         assertMealFields(expectedMeal, afterUpdate);
         verify(mealRepository, times(1)).findById(meal.getId());
-        verify(mealRepository, times(1)).save(meal);
+        verify(mealRepository, times(1)).updateDetails(meal);
         verify(mealDtoConverter, times(1)).toDto(meal);
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
@@ -419,7 +565,7 @@ class MealServiceTest {
         expected.setProducts(new ArrayList<>());
 
         when(mealRepository.findById(meal.getId())).thenReturn(Mono.just(meal));
-        when(mealRepository.save(meal)).thenReturn(Mono.just(expected));
+        when(mealRepository.updateDetails(meal)).thenReturn(Mono.just(expected));
         when(mealDtoConverter.toDto(expected)).thenReturn(expectedDto);
         when(productDtoConverter.listFromDto(new ArrayList<>())).thenReturn(new ArrayList<>());
 
@@ -427,7 +573,7 @@ class MealServiceTest {
 
         assertMealFields(expectedDto, actualMeal);
         verify(mealRepository, times(1)).findById(meal.getId());
-        verify(mealRepository, times(1)).save(meal);
+        verify(mealRepository, times(1)).updateDetails(meal);
         verify(mealDtoConverter, times(1)).toDto(meal);
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
@@ -460,7 +606,7 @@ class MealServiceTest {
         expectedDto.setCarbohydrateExchange(productDtos.get(0).getCarbohydrateExchange() + productDtos.get(1).getCarbohydrateExchange());
 
         when(mealRepository.findById(meal.getId())).thenReturn(Mono.just(meal));
-        when(mealRepository.save(expected)).thenReturn(Mono.just(expected));
+        when(mealRepository.updateDetails(expected)).thenReturn(Mono.just(expected));
         when(mealDtoConverter.toDto(expected)).thenReturn(expectedDto);
         when(productDtoConverter.listFromDto(productDtos)).thenReturn(products);
 
@@ -468,12 +614,64 @@ class MealServiceTest {
 
         assertMealFields(expectedDto, actual);
         verify(mealRepository, times(1)).findById(meal.getId());
-        verify(mealRepository, times(1)).save(meal);
+        verify(mealRepository, times(1)).updateDetails(meal);
         verify(mealDtoConverter, times(1)).toDto(meal);
         verify(productDtoConverter, times(1)).listFromDto(productDtos);
         verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
     }
 
+    @Test
+    @DisplayName("Recalculate meal information, when products are corrected, then sum the calculated products")
+    void recalculateMealInformation_whenProductsCorrected_thenSumCalculatedProducts() {
+        meal.setProducts(new ArrayList<>(Arrays.asList(bread(), banana())));
+        final var calculatedProducts = mealService.createCalculatedProductList(meal.getProducts());
+
+        mealService.recalculateMealInformation(meal);
+
+        assertAll(
+                () -> assertEquals(bread().getAmount() + banana().getAmount(), meal.getAmount()),
+                () -> assertEquals(calculatedProducts.get(0).getKcal() + calculatedProducts.get(1).getKcal(), meal.getKcal(), 0.001),
+                () -> assertEquals(calculatedProducts.get(0).getProtein() + calculatedProducts.get(1).getProtein(), meal.getProtein(), 0.001)
+        );
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
+    }
+
+    @Test
+    @DisplayName("Recalculate meal information, when contributions have parts below rounding, then round their sum once")
+    void recalculateMealInformation_whenContributionsBelowRounding_thenRoundSumOnce() {
+        final var bread = bread();
+        bread.setAmount(50);
+        bread.setKcal(0.01);
+        final var banana = banana();
+        banana.setAmount(50);
+        banana.setKcal(0.01);
+        meal.setProducts(new ArrayList<>(Arrays.asList(bread, banana)));
+
+        mealService.recalculateMealInformation(meal);
+
+        assertEquals(0.01, meal.getKcal());
+        assertEquals(List.of(0.01, 0.01), mealService.createCalculatedProductList(meal.getProducts())
+                .stream()
+                .map(Product::getKcal)
+                .collect(Collectors.toList()));
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
+    }
+
+    @Test
+    @DisplayName("Recalculate meal information, when batch is large, then every meal equals a single recalculation")
+    void recalculateMealInformation_whenLargeBatch_thenEqualSingleRecalculation() {
+        meal.setProducts(new ArrayList<>(Arrays.asList(bread(), banana())));
+        mealService.recalculateMealInformation(meal);
+        final var meals = createMealList(1000, DUMPLINGS);
+        meals.forEach(batchMeal -> batchMeal.setProducts(new ArrayList<>(Arrays.asList(bread(), banana()))));
+
+        final var recalculated = mealService.recalculateMealInformation(meals);
+
+        assertSame(meals, recalculated);
+        recalculated.forEach(batchMeal -> assertEquals(meal.nutrients(), batchMeal.nutrients()));
+        verifyNoMoreInteractions(mealRepository, mealDtoConverter, productDtoConverter);
+    }
+
     private ArrayList<Meal> createMealList(int size, String meal) {
         var arrayList = new ArrayList<Meal>();
 
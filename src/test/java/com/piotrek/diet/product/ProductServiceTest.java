@@ -1,7 +1,12 @@
 package com.piotrek.diet.product;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.piotrek.diet.cloud.CloudStorageService;
+import com.piotrek.diet.exceptions.BadRequestException;
 import com.piotrek.diet.exceptions.NotFoundException;
+import com.piotrek.diet.helpers.Cursor;
+import com.piotrek.diet.helpers.CursorPage;
 import com.piotrek.diet.helpers.Page;
 import com.piotrek.diet.helpers.ProductSample;
 import com.piotrek.diet.helpers.UserSample;
@@ -11,13 +16,16 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.mock.web.MockMultipartFile;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -43,6 +51,14 @@ class ProductServiceTest {
     @Mock
     private CloudStorageService imageStorage;
 
+    @Mock
+    private ProductSuggester productSuggester;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private Cache<String, Product> productCache;
+
     private ProductService productService;
 
     private Product product;
@@ -53,7 +69,9 @@ class ProductServiceTest {
         product = banana();
         productDto = bananaDto();
         MockitoAnnotations.initMocks(this);
-        productService = new ProductService(productRepository, productDtoConverter, diabetesCalculator, doubleRounder, imageStorage);
+        productCache = Caffeine.newBuilder().build();
+        productService = new ProductService(productRepository, productDtoConverter, diabetesCalculator, imageStorage,
+                productSuggester, productCache, eventPublisher);
     }
 
     @Test
@@ -68,6 +86,50 @@ class ProductServiceTest {
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
 
+    @Test
+    @DisplayName("Find product by id, when found twice, then query repository once and return copies of the cached product")
+    void findById_whenFoundTwice_thenQueryRepositoryOnce() {
+        when(productRepository.findById(product.getId())).thenReturn(Mono.just(product));
+
+        final var firstProduct = productService.findById(product.getId()).block();
+        firstProduct.setAmount(firstProduct.getAmount() + 50);
+        final var secondProduct = productService.findById(product.getId()).block();
+
+        assertProductFields(product, secondProduct);
+        assertNotSame(firstProduct, secondProduct);
+        verify(productRepository, times(1)).findById(product.getId());
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+    }
+
+    @Test
+    @DisplayName("Find product by id, when product was saved after caching, then query repository again")
+    void findById_whenSavedAfterCaching_thenQueryRepositoryAgain() {
+        when(productRepository.findById(product.getId())).thenReturn(Mono.just(product));
+        when(productRepository.save(product)).thenReturn(Mono.just(product));
+        when(productDtoConverter.toDto(product)).thenReturn(productDto);
+
+        productService.findById(product.getId()).block();
+        productService.save(product).block();
+        productService.findById(product.getId()).block();
+
+        verify(productRepository, times(2)).findById(product.getId());
+        verify(productRepository, times(1)).save(product);
+    }
+
+    @Test
+    @DisplayName("Find product by id, when product was deleted after caching, then throw NotFoundException")
+    void findById_whenDeletedAfterCaching_thenThrowNotFoundException() {
+        when(productRepository.findById(product.getId())).thenReturn(Mono.just(product)).thenReturn(Mono.empty());
+        when(productRepository.deleteById(product.getId())).thenReturn(Mono.empty());
+
+        productService.findById(product.getId()).block();
+        productService.deleteById(product.getId()).block();
+
+        assertThrows(NotFoundException.class, () -> productService.findById(product.getId()).block());
+        verify(productRepository, times(2)).findById(product.getId());
+        verify(productRepository, times(1)).deleteById(product.getId());
+    }
+
     @Test
     @DisplayName("Find by id, when not found, then throw NotFoundException")
     void findById_whenIdIsInvalid_thenThrowNotFoundException() {
@@ -79,6 +141,17 @@ class ProductServiceTest {
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
 
+    @Test
+    @DisplayName("Find all by ids, then return products with given ids loaded in one query")
+    void findAllByIds() {
+        final var ids = List.of(product.getId());
+        when(productRepository.findAllById(ids)).thenReturn(Flux.just(product));
+
+        assertEquals(List.of(product), productService.findAllByIds(ids).collectList().block());
+        verify(productRepository, times(1)).findAllById(ids);
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+    }
+
     @Test
     @DisplayName("Find productDto by id, when found, then return")
     void findDtoById_whenFound_thenReturn() {
@@ -118,15 +191,70 @@ class ProductServiceTest {
                 .limit(pageSize)
                 .collect(Collectors.toList()), page, pageSize, totalElements);
 
-        when(productRepository.findAllByNameIgnoreCaseContaining(query)).thenReturn(Flux.fromIterable(productList));
+        when(productRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just((long) totalElements));
+        when(productRepository.countAllBySearchNameStartingWith(query)).thenReturn(Mono.just(0L));
+        when(productRepository.fuzzySearchByName(query, PageRequest.of(page, pageSize)))
+                .thenReturn(Mono.just(new Page<>(productList, page, pageSize, totalElements)));
+
+        final var actualPage = productService.searchByName(PageRequest.of(page, pageSize), query).block();
+
+        assertEquals(expected, actualPage);
+        verify(productRepository, times(1)).countAllBySearchNameStartingWith(query);
+        verify(productRepository, times(1)).fuzzySearchByName(query, PageRequest.of(page, pageSize));
+        verify(productRepository, times(1)).countAllBy(any(TextCriteria.class));
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+    }
+
+    @Test
+    @DisplayName("Search product by name, when query has a typo and no diacritics, then return fuzzy matched products")
+    void searchByName_whenQueryHasTypo_thenReturnFuzzyMatchedProducts() {
+        final var page = 0;
+        final var pageSize = 10;
+        final var query = "chlep razowy";
+        final var bread = bread();
+        final var expected = new Page<>(List.of(breadDto()), page, pageSize, 1);
+
+        when(productRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just(0L));
+        when(productRepository.countAllBySearchNameStartingWith(query)).thenReturn(Mono.just(0L));
+        when(productRepository.fuzzySearchByName(query, PageRequest.of(page, pageSize)))
+                .thenReturn(Mono.just(new Page<>(List.of(bread), page, pageSize, 1)));
+        when(productDtoConverter.toDto(bread)).thenReturn(breadDto());
 
         final var actualPage = productService.searchByName(PageRequest.of(page, pageSize), query).block();
 
         assertEquals(expected, actualPage);
-        verify(productRepository, times(1)).findAllByNameIgnoreCaseContaining(query);
+        verify(productRepository, times(1)).countAllBy(any(TextCriteria.class));
+        verify(productRepository, times(1)).countAllBySearchNameStartingWith(query);
+        verify(productRepository, times(1)).fuzzySearchByName(query, PageRequest.of(page, pageSize));
+        verify(productDtoConverter, times(1)).toDto(bread);
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
 
+
+    @Test
+    @DisplayName("Search product by name, when query is a partial word, then return products whose name starts with it")
+    void searchByName_whenQueryIsPartialWord_thenReturnProductsStartingWithIt() {
+        final var page = 0;
+        final var pageSize = 10;
+        final var query = "Chle";
+        final var bread = bread();
+        final var expected = new Page<>(List.of(breadDto()), page, pageSize, 1);
+
+        when(productRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just(0L));
+        when(productRepository.countAllBySearchNameStartingWith("chle")).thenReturn(Mono.just(1L));
+        when(productRepository.findAllBySearchNameStartingWithOrderBySearchName("chle", PageRequest.of(page, pageSize)))
+                .thenReturn(Flux.just(bread));
+        when(productDtoConverter.toDto(bread)).thenReturn(breadDto());
+
+        final var actualPage = productService.searchByName(PageRequest.of(page, pageSize), query).block();
+
+        assertEquals(expected, actualPage);
+        verify(productRepository, times(1)).countAllBy(any(TextCriteria.class));
+        verify(productRepository, times(1)).countAllBySearchNameStartingWith("chle");
+        verify(productRepository, times(1)).findAllBySearchNameStartingWithOrderBySearchName("chle", PageRequest.of(page, pageSize));
+        verify(productDtoConverter, times(1)).toDto(bread);
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+    }
     @Test
     @DisplayName("Search by name, when two products and query matches two of them, then return page with two products")
     void searchByName_whenTwoProductsAndQueryMatchesTwoOfThem_thenReturnPageWithTwoProducts() {
@@ -137,13 +265,15 @@ class ProductServiceTest {
         final var productList = createProductList(totalElements, BANANA);
         final var expected = new Page<>(createProductDtoList(totalElements, BANANA), page, pageSize, totalElements);
 
-        when(productRepository.findAllByNameIgnoreCaseContaining(query)).thenReturn(Flux.fromIterable(productList));
+        when(productRepository.findAllByOrderByScoreDesc(any(TextCriteria.class), eq(PageRequest.of(page, pageSize)))).thenReturn(Flux.fromIterable(productList));
+        when(productRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just((long) totalElements));
         when(productDtoConverter.toDto(banana())).thenReturn(bananaDto());
 
         final var actualPage = productService.searchByName(PageRequest.of(page, pageSize), query).block();
 
         assertEquals(expected, actualPage);
-        verify(productRepository, times(1)).findAllByNameIgnoreCaseContaining(query);
+        verify(productRepository, times(1)).findAllByOrderByScoreDesc(any(TextCriteria.class), eq(PageRequest.of(page, pageSize)));
+        verify(productRepository, times(1)).countAllBy(any(TextCriteria.class));
         verify(productDtoConverter, times(totalElements)).toDto(banana());
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
@@ -162,17 +292,150 @@ class ProductServiceTest {
                 .limit(pageSize)
                 .collect(Collectors.toList()), page, pageSize, totalElements);
 
-        when(productRepository.findAllByNameIgnoreCaseContaining(query)).thenReturn(Flux.fromIterable(productList));
+        when(productRepository.findAllByOrderByScoreDesc(any(TextCriteria.class), eq(PageRequest.of(page, pageSize))))
+                .thenReturn(Flux.fromIterable(productList.subList(page * pageSize, (page + 1) * pageSize)));
+        when(productRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just((long) totalElements));
         when(productDtoConverter.toDto(banana())).thenReturn(bananaDto());
 
         final var actualFirstPage = productService.searchByName(PageRequest.of(page, pageSize), query).block();
 
         assertEquals(expected, actualFirstPage);
-        verify(productRepository, times(1)).findAllByNameIgnoreCaseContaining(query);
+        verify(productRepository, times(1)).findAllByOrderByScoreDesc(any(TextCriteria.class), eq(PageRequest.of(page, pageSize)));
+        verify(productRepository, times(1)).countAllBy(any(TextCriteria.class));
         verify(productDtoConverter, times(pageSize)).toDto(banana());
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
 
+    @Test
+    @DisplayName("Search product by name, when query is blank, then return page of all products")
+    void searchByName_whenQueryIsBlank_thenReturnPageOfAllProducts() {
+        final var page = 0;
+        final var pageSize = 10;
+        final var expected = new Page<>(List.of(bananaDto()), page, pageSize, 1);
+
+        when(productRepository.findAllBy(PageRequest.of(page, pageSize))).thenReturn(Flux.just(banana()));
+        when(productRepository.count()).thenReturn(Mono.just(1L));
+        when(productDtoConverter.toDto(banana())).thenReturn(bananaDto());
+
+        final var actualPage = productService.searchByName(PageRequest.of(page, pageSize), " ").block();
+
+        assertEquals(expected, actualPage);
+        verify(productRepository, times(1)).findAllBy(PageRequest.of(page, pageSize));
+        verify(productRepository, times(1)).count();
+        verify(productDtoConverter, times(1)).toDto(banana());
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+    }
+
+    @Test
+    @DisplayName("Find all products by cursor, when first page and more products than page size, then return page with next cursor")
+    void findAllByCursor_whenFirstPageAndMoreProducts_thenReturnPageWithNextCursor() {
+        final var pageSize = 2;
+        final var productList = createProductList(pageSize + 1, BANANA);
+
+        when(productRepository.findAllBy(Cursor.pageRequest(pageSize))).thenReturn(Flux.fromIterable(productList));
+        when(productDtoConverter.toDto(banana())).thenReturn(bananaDto());
+
+        final var actualPage = productService.findAllByCursor(Cursor.FIRST_PAGE_CURSOR, pageSize).block();
+
+        assertNotNull(actualPage);
+        assertEquals(List.of(bananaDto(), bananaDto()), actualPage.getContent());
+        assertEquals(Cursor.first().next(productList.subList(0, pageSize)).encode(), actualPage.getNextCursor());
+        assertFalse(actualPage.isLast());
+        verify(productRepository, times(1)).findAllBy(Cursor.pageRequest(pageSize));
+        verify(productDtoConverter, times(pageSize)).toDto(banana());
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+    }
+
+    @Test
+    @DisplayName("Find all products by cursor, when next page is the last one, then query after cursor and return page without next cursor")
+    void findAllByCursor_whenLastPage_thenReturnPageWithoutNextCursor() {
+        final var pageSize = 10;
+        final var cursor = Cursor.first().next(List.of(bread()));
+
+        when(productRepository.findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(cursor.getCreatedAt(), cursor.getCreatedAt(), cursor.getLastId(), Cursor.pageRequest(pageSize)))
+                .thenReturn(Flux.just(banana()));
+        when(productDtoConverter.toDto(banana())).thenReturn(bananaDto());
+
+        final var actualPage = productService.findAllByCursor(cursor.encode(), pageSize).block();
+
+        assertEquals(new CursorPage<>(List.of(bananaDto()), pageSize, null), actualPage);
+        assertTrue(actualPage.isLast());
+        verify(productRepository, times(1))
+                .findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(cursor.getCreatedAt(), cursor.getCreatedAt(), cursor.getLastId(), Cursor.pageRequest(pageSize));
+        verify(productDtoConverter, times(1)).toDto(banana());
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+    }
+
+    @Test
+    @DisplayName("Find all products by cursor, when cursor is malformed, then throw BadRequestException")
+    void findAllByCursor_whenCursorIsInvalid_thenThrowBadRequestException() {
+        assertThrows(BadRequestException.class, () -> productService.findAllByCursor("not-a-cursor", 10).block());
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+    }
+
+    @Test
+    @DisplayName("Find all products by cursor, when page size is not positive, then throw BadRequestException")
+    void findAllByCursor_whenSizeIsNotPositive_thenThrowBadRequestException() {
+        assertThrows(BadRequestException.class, () -> productService.findAllByCursor(Cursor.FIRST_PAGE_CURSOR, 0).block());
+        assertThrows(BadRequestException.class, () -> productService.findAllByCursor(Cursor.FIRST_PAGE_CURSOR, -1).block());
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+    }
+
+    @Test
+    @DisplayName("Search products by cursor, when cursor is given, then query products matching name after cursor")
+    void searchByNameByCursor_whenCursorGiven_thenReturnMatchingProductsAfterCursor() {
+        final var pageSize = 10;
+        final var query = banana().getName();
+        final var cursor = Cursor.first().next(List.of(banana()));
+
+        when(productRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just(1L));
+        when(productRepository.findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(any(TextCriteria.class),
+                eq(cursor.getCreatedAt()), eq(cursor.getCreatedAt()), eq(cursor.getLastId()), eq(Cursor.pageRequest(pageSize)))).thenReturn(Flux.empty());
+
+        final var actualPage = productService.searchByNameByCursor(cursor.encode(), pageSize, query).block();
+
+        assertEquals(new CursorPage<>(List.of(), pageSize, null), actualPage);
+        verify(productRepository, times(1)).countAllBy(any(TextCriteria.class));
+        verify(productRepository, times(1)).findAllByCreatedAtGreaterThanOrCreatedAtAndIdGreaterThan(any(TextCriteria.class),
+                eq(cursor.getCreatedAt()), eq(cursor.getCreatedAt()), eq(cursor.getLastId()), eq(Cursor.pageRequest(pageSize)));
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+    }
+
+    @Test
+    @DisplayName("Search products by cursor, when no whole word matches, then query products whose name starts with the query after cursor")
+    void searchByNameByCursor_whenPartialWord_thenReturnPrefixMatchesAfterCursor() {
+        final var pageSize = 10;
+        final var cursor = Cursor.first().next(List.of(bread()));
+
+        when(productRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just(0L));
+        when(productRepository.countAllBySearchNameStartingWith("ban")).thenReturn(Mono.just(1L));
+        when(productRepository.findAllBySearchNameStartingWithAndCreatedAtGreaterThanOrSearchNameStartingWithAndCreatedAtAndIdGreaterThan(
+                "ban", cursor.getCreatedAt(), "ban", cursor.getCreatedAt(), cursor.getLastId(), Cursor.pageRequest(pageSize)))
+                .thenReturn(Flux.just(banana()));
+        when(productDtoConverter.toDto(banana())).thenReturn(bananaDto());
+
+        final var actualPage = productService.searchByNameByCursor(cursor.encode(), pageSize, "Ban").block();
+
+        assertEquals(new CursorPage<>(List.of(bananaDto()), pageSize, null), actualPage);
+        verify(productRepository, never()).fuzzySearchByName(any(), any(Cursor.class), any());
+    }
+
+    @Test
+    @DisplayName("Search products by cursor, when no name starts with the query, then fall back to the fuzzy search from the first page")
+    void searchByNameByCursor_whenTypo_thenReturnFuzzyMatches() {
+        final var pageSize = 10;
+
+        when(productRepository.countAllBy(any(TextCriteria.class))).thenReturn(Mono.just(0L));
+        when(productRepository.countAllBySearchNameStartingWith("bananq")).thenReturn(Mono.just(0L));
+        when(productRepository.fuzzySearchByName("bananq", Cursor.first(), Cursor.pageRequest(pageSize))).thenReturn(Flux.just(banana()));
+        when(productDtoConverter.toDto(banana())).thenReturn(bananaDto());
+
+        final var actualPage = productService.searchByNameByCursor(Cursor.FIRST_PAGE_CURSOR, pageSize, "bananq").block();
+
+        assertEquals(new CursorPage<>(List.of(bananaDto()), pageSize, null), actualPage);
+        verify(productRepository, times(1)).fuzzySearchByName("bananq", Cursor.first(), Cursor.pageRequest(pageSize));
+    }
+
     @Test
     void updateProduct_whenOk_thenUpdateProduct() {
         productDto.setName("updated");
@@ -182,7 +445,7 @@ class ProductServiceTest {
         productDto.setFat(15);
 
         when(productRepository.findById(product.getId())).thenReturn(Mono.just(product));
-        when(productRepository.save(product)).thenReturn(Mono.just(product));
+        when(productRepository.updateDetails(product)).thenReturn(Mono.just(product));
         when(productDtoConverter.toDto(product)).thenReturn(productDto);
 
         var actual = productService.updateProduct(product.getId(), productDto).block();
@@ -193,18 +456,39 @@ class ProductServiceTest {
                 .calculateProteinAndFatEquivalent(productDto.getProtein(), productDto.getFat());
         verify(diabetesCalculator, times(1))
                 .calculateCarbohydrateExchange(productDto.getCarbohydrate(), productDto.getFibre());
-        verify(productRepository, times(1)).save(product);
+        verify(productRepository, times(1)).updateDetails(product);
         verify(productDtoConverter, times(1)).toDto(product);
+        verify(eventPublisher, times(1)).publishEvent(any(ProductNutrientsChanged.class));
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
 
+    @Test
+    @DisplayName("Update product, when nutrients are not changed, then don't publish ProductNutrientsChanged")
+    void updateProduct_whenNutrientsNotChanged_thenDontPublishEvent() {
+        productDto.setName("updated");
+
+        when(productRepository.findById(product.getId())).thenReturn(Mono.just(product));
+        when(productRepository.updateDetails(product)).thenReturn(Mono.just(product));
+        when(productDtoConverter.toDto(product)).thenReturn(productDto);
+        when(diabetesCalculator.calculateCarbohydrateExchange(product.getCarbohydrate(), product.getFibre()))
+                .thenReturn(product.getCarbohydrateExchange());
+        when(diabetesCalculator.calculateProteinAndFatEquivalent(product.getProtein(), product.getFat()))
+                .thenReturn(product.getProteinAndFatEquivalent());
+
+        var actual = productService.updateProduct(product.getId(), productDto).block();
+
+        assertProductFields(productDto, actual);
+        verify(productRepository, times(1)).updateDetails(product);
+        verifyZeroInteractions(eventPublisher);
+    }
+
     @Test
     void updateProduct_whenImageFileIsNotNull_thenUpdateProductWithImage() {
         final String IMAGE_URL = "some-fake-image-url.com/so-funny-image";
         productDto.setImageToSave(new MockMultipartFile("fileName", new byte[23]));
 
         when(productRepository.findById(product.getId())).thenReturn(Mono.just(product));
-        when(productRepository.save(product)).thenReturn(Mono.just(product));
+        when(productRepository.updateDetails(product)).thenReturn(Mono.just(product));
         when(productDtoConverter.toDto(product)).thenReturn(productDto);
         when(imageStorage.uploadImageBlob(IMAGE_CONTAINER_PRODUCTS, productDto.getId(), productDto.getImageToSave())).thenReturn(IMAGE_URL);
 
@@ -217,7 +501,7 @@ class ProductServiceTest {
         verify(imageStorage, times(1)).uploadImageBlob(IMAGE_CONTAINER_PRODUCTS, productDto.getId(), productDto.getImageToSave());
         verify(diabetesCalculator, times(1)).calculateProteinAndFatEquivalent(productDto.getProtein(), productDto.getFat());
         verify(diabetesCalculator, times(1)).calculateCarbohydrateExchange(productDto.getCarbohydrate(), productDto.getFibre());
-        verify(productRepository, times(1)).save(product);
+        verify(productRepository, times(1)).updateDetails(product);
         verify(productDtoConverter, times(1)).toDto(product);
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
@@ -262,13 +546,16 @@ class ProductServiceTest {
                 .limit(pageSize)
                 .collect(Collectors.toList()), page, pageSize, totalElements);
 
-        when(productRepository.findAll()).thenReturn(Flux.fromIterable(productList));
+        when(productRepository.findAllBy(PageRequest.of(page, pageSize)))
+                .thenReturn(Flux.fromIterable(productList.subList(page * pageSize, (page + 1) * pageSize)));
+        when(productRepository.count()).thenReturn(Mono.just((long) totalElements));
         when(productDtoConverter.toDto(banana())).thenReturn(bananaDto());
 
         final var firstPage = productService.findAllPageable(PageRequest.of(page, pageSize)).block();
 
         assertEquals(expected, firstPage);
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(1)).findAllBy(PageRequest.of(page, pageSize));
+        verify(productRepository, times(1)).count();
         verify(productDtoConverter, times(10)).toDto(banana());
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
@@ -287,13 +574,16 @@ class ProductServiceTest {
                 .limit(pageSize)
                 .collect(Collectors.toList()), page, pageSize, totalElements);
 
-        when(productRepository.findAll()).thenReturn(Flux.fromIterable(productList));
+        when(productRepository.findAllBy(PageRequest.of(page, pageSize)))
+                .thenReturn(Flux.fromIterable(productList.subList(page * pageSize, (page + 1) * pageSize)));
+        when(productRepository.count()).thenReturn(Mono.just((long) totalElements));
         when(productDtoConverter.toDto(banana())).thenReturn(bananaDto());
 
         final var firstPage = productService.findAllPageable(PageRequest.of(page, pageSize)).block();
 
         assertEquals(expected, firstPage);
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(1)).findAllBy(PageRequest.of(page, pageSize));
+        verify(productRepository, times(1)).count();
         verify(productDtoConverter, times(10)).toDto(banana());
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
@@ -308,12 +598,14 @@ class ProductServiceTest {
         final var productDtoList = createProductDtoList(totalElements, BANANA);
         final var expected = new Page<>(productDtoList, page, pageSize, totalElements);
 
-        when(productRepository.findAll()).thenReturn(Flux.fromIterable(productList));
+        when(productRepository.findAllBy(PageRequest.of(page, pageSize))).thenReturn(Flux.fromIterable(productList));
+        when(productRepository.count()).thenReturn(Mono.just((long) totalElements));
 
         final var secondPage = productService.findAllPageable(PageRequest.of(page, pageSize)).block();
 
         assertEquals(expected, secondPage);
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(1)).findAllBy(PageRequest.of(page, pageSize));
+        verify(productRepository, times(1)).count();
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
 
@@ -328,14 +620,16 @@ class ProductServiceTest {
         final var expected = new Page<>(productDtoList, page, pageSize, totalElements);
         final var user = UserSample.john();
 
-        when(productRepository.findAllByUserId(user.getId())).thenReturn(Flux.fromIterable(productList));
+        when(productRepository.findAllByUserId(user.getId(), PageRequest.of(page, pageSize))).thenReturn(Flux.fromIterable(productList));
+        when(productRepository.countAllByUserId(user.getId())).thenReturn(Mono.just((long) totalElements));
         when(productDtoConverter.toDto(banana())).thenReturn(bananaDto());
 
         final var block = productService.findAllByUserPageable(user.getId(), PageRequest.of(page, pageSize)).block();
 
         assertNotNull(block);
         assertEquals(expected, block);
-        verify(productRepository, times(1)).findAllByUserId(user.getId());
+        verify(productRepository, times(1)).findAllByUserId(user.getId(), PageRequest.of(page, pageSize));
+        verify(productRepository, times(1)).countAllByUserId(user.getId());
         verify(productDtoConverter, times(totalElements)).toDto(banana());
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
@@ -349,13 +643,15 @@ class ProductServiceTest {
         final var expected = new Page<>(new ArrayList<ProductDto>(), page, pageSize, totalElements);
         final var user = UserSample.john();
 
-        when(productRepository.findAllByUserId(user.getId())).thenReturn(Flux.empty());
+        when(productRepository.findAllByUserId(user.getId(), PageRequest.of(page, pageSize))).thenReturn(Flux.empty());
+        when(productRepository.countAllByUserId(user.getId())).thenReturn(Mono.just((long) totalElements));
 
         final var actualPage = productService.findAllByUserPageable(user.getId(), PageRequest.of(page, pageSize)).block();
 
         assertNotNull(actualPage);
         assertEquals(expected, actualPage);
-        verify(productRepository, times(1)).findAllByUserId(user.getId());
+        verify(productRepository, times(1)).findAllByUserId(user.getId(), PageRequest.of(page, pageSize));
+        verify(productRepository, times(1)).countAllByUserId(user.getId());
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
 
@@ -371,6 +667,7 @@ class ProductServiceTest {
         verify(productDtoConverter, times(1)).toDto(product);
         verify(diabetesCalculator, times(1)).calculateProteinAndFatEquivalent(product.getProtein(), product.getFat());
         verify(diabetesCalculator, times(1)).calculateCarbohydrateExchange(product.getCarbohydrate(), product.getFibre());
+        verify(productSuggester, times(1)).put(product);
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
 
@@ -388,24 +685,67 @@ class ProductServiceTest {
         verify(productDtoConverter, times(1)).toDto(product);
         verify(diabetesCalculator, times(1)).calculateProteinAndFatEquivalent(product.getProtein(), product.getFat());
         verify(diabetesCalculator, times(1)).calculateCarbohydrateExchange(product.getCarbohydrate(), product.getFibre());
+        verify(productSuggester, times(1)).put(product);
         verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
     }
 
     @Test
     void deleteById() {
-        when(productRepository.findById(product.getId())).thenReturn(Mono.just(product));
+        when(productRepository.deleteById(product.getId())).thenReturn(Mono.empty());
 
-        assertEquals(Mono.empty().block(), productService.deleteById(product.getId()));
+        assertNull(productService.deleteById(product.getId()).block());
         verify(productRepository, times(1)).deleteById(product.getId());
-        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+        verify(productSuggester, times(1)).remove(product.getId());
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage, productSuggester);
     }
 
     @Test
     void deleteAll() {
-        assertEquals(Mono.empty().block(), productService.deleteAll());
+        when(productRepository.deleteAll()).thenReturn(Mono.empty());
 
+        assertNull(productService.deleteAll().block());
         verify(productRepository, times(1)).deleteAll();
-        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage);
+        verify(productSuggester, times(1)).clear();
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage, productSuggester);
+    }
+
+    @Test
+    @DisplayName("Increment cart counter, then increment it in the database and in the suggestions")
+    void incrementCartCounter() {
+        when(productRepository.incrementCartCounter(product.getId())).thenReturn(Mono.empty());
+
+        productService.incrementCartCounter(product.getId()).block();
+
+        verify(productRepository, times(1)).incrementCartCounter(product.getId());
+        verify(productSuggester, times(1)).incrementPopularity(product.getId());
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage, productSuggester);
+    }
+
+    @Test
+    @DisplayName("Increment cart counter, when product was cached, then keep serving it from the cache")
+    void incrementCartCounter_whenProductCached_thenKeepCachedProduct() {
+        when(productRepository.findById(product.getId())).thenReturn(Mono.just(product));
+        when(productRepository.incrementCartCounter(product.getId())).thenReturn(Mono.empty());
+
+        productService.findById(product.getId()).block();
+        productService.incrementCartCounter(product.getId()).block();
+        productService.findById(product.getId()).block();
+
+        verify(productRepository, times(1)).findById(product.getId());
+        verify(productRepository, times(1)).incrementCartCounter(product.getId());
+    }
+
+    @Test
+    @DisplayName("Suggest products, then return suggestions from the in-memory index")
+    void suggest() {
+        final var suggestion = new ProductSuggestion(product.getId(), product.getName(), 1);
+        when(productSuggester.suggest("ban", 5)).thenReturn(List.of(suggestion));
+
+        final var suggestions = productService.suggest("ban", 5).collectList().block();
+
+        assertEquals(List.of(suggestion), suggestions);
+        verify(productSuggester, times(1)).suggest("ban", 5);
+        verifyNoMoreInteractions(productRepository, productDtoConverter, diabetesCalculator, imageStorage, productSuggester);
     }
 
     @Test
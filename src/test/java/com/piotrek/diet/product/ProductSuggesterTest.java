@@ -0,0 +1,167 @@
+package com.piotrek.diet.product;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class ProductSuggesterTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSuggester productSuggester;
+
+    @BeforeEach
+    void beforeEach() {
+        MockitoAnnotations.initMocks(this);
+        productSuggester = new ProductSuggester(productRepository);
+    }
+
+    @Test
+    @DisplayName("Load, then index all products from the repository")
+    void load_whenTwoProducts_thenSuggestBoth() {
+        final var milk = product("Mleko 1%", 0);
+        final var flakes = product("Płatki kukurydziane Corn Flakes", 0);
+        when(productRepository.findAll()).thenReturn(Flux.just(milk, flakes));
+
+        productSuggester.load();
+
+        assertEquals(List.of(suggestion(milk)), productSuggester.suggest("mle", 10));
+        assertEquals(List.of(suggestion(flakes)), productSuggester.suggest("pla", 10));
+        verify(productRepository, times(1)).findAll();
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    @DisplayName("Suggest, when prefix has capitals and no diacritics, then match the product")
+    void suggest_whenPrefixWithoutDiacritics_thenMatch() {
+        final var flakes = product("Płatki kukurydziane Corn Flakes", 0);
+        productSuggester.put(flakes);
+
+        assertEquals(List.of(suggestion(flakes)), productSuggester.suggest("PLATKI kuk", 10));
+        assertEquals(List.of(suggestion(flakes)), productSuggester.suggest("corn", 10));
+        assertTrue(productSuggester.suggest("flakes corn", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Suggest, when more matches than limit, then return the most popular ones first")
+    void suggest_whenMoreMatchesThanLimit_thenReturnMostPopular() {
+        final var milk = product("Mleko 1%", 5);
+        final var goatMilk = product("Mleko kozie", 20);
+        final var coconutMilk = product("Mleko kokosowe", 1);
+        productSuggester.put(milk);
+        productSuggester.put(goatMilk);
+        productSuggester.put(coconutMilk);
+
+        assertEquals(List.of(suggestion(goatMilk), suggestion(milk)), productSuggester.suggest("mleko", 2));
+    }
+
+    @Test
+    @DisplayName("Increment popularity, then rank the product higher")
+    void incrementPopularity_thenRankHigher() {
+        final var milk = product("Mleko 1%", 1);
+        final var goatMilk = product("Mleko kozie", 0);
+        productSuggester.put(milk);
+        productSuggester.put(goatMilk);
+
+        productSuggester.incrementPopularity(goatMilk.getId());
+        productSuggester.incrementPopularity(goatMilk.getId());
+
+        assertEquals(goatMilk.getId(), productSuggester.suggest("mleko", 1).get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Increment popularity, when short prefix was already suggested, then rank the product higher for it")
+    void incrementPopularity_whenShortPrefixSuggested_thenRankHigher() {
+        final var milk = product("Mleko 1%", 1);
+        final var goatMilk = product("Mleko kozie", 0);
+        final var butter = product("Masło", 0);
+        productSuggester.put(milk);
+        productSuggester.put(goatMilk);
+        productSuggester.put(butter);
+        assertEquals(List.of(suggestion(milk)), productSuggester.suggest("m", 1));
+
+        productSuggester.incrementPopularity(goatMilk.getId());
+        productSuggester.incrementPopularity(goatMilk.getId());
+
+        assertEquals(List.of(new ProductSuggestion(goatMilk.getId(), goatMilk.getName(), 2), suggestion(milk)),
+                productSuggester.suggest("m", 2));
+    }
+
+    @Test
+    @DisplayName("Put, when short prefix was already suggested, then suggest the new product for it")
+    void put_whenShortPrefixSuggested_thenSuggestNewProduct() {
+        final var milk = product("Mleko 1%", 0);
+        productSuggester.put(milk);
+        assertEquals(List.of(suggestion(milk)), productSuggester.suggest("ml", 10));
+
+        final var goatMilk = product("Mleko kozie", 3);
+        productSuggester.put(goatMilk);
+        productSuggester.remove(milk.getId());
+
+        assertEquals(List.of(suggestion(goatMilk)), productSuggester.suggest("ml", 10));
+    }
+
+    @Test
+    @DisplayName("Suggest, when limit is above the maximum, then return at most the maximum number of suggestions")
+    void suggest_whenLimitAboveMaximum_thenReturnMaximum() {
+        for (int i = 0; i < ProductSuggester.MAX_SUGGESTIONS + 5; i++)
+            productSuggester.put(product("Mleko " + i, i));
+
+        assertEquals(ProductSuggester.MAX_SUGGESTIONS, productSuggester.suggest("m", 100).size());
+        assertEquals(ProductSuggester.MAX_SUGGESTIONS, productSuggester.suggest("mleko", 100).size());
+    }
+
+    @Test
+    @DisplayName("Put, when product is renamed, then suggest only the new name")
+    void put_whenRenamed_thenSuggestOnlyNewName() {
+        final var product = product("Mleko 1%", 0);
+        productSuggester.put(product);
+
+        product.setName("Kefir");
+        productSuggester.put(product);
+
+        assertTrue(productSuggester.suggest("mleko", 10).isEmpty());
+        assertEquals(List.of(suggestion(product)), productSuggester.suggest("kefir", 10));
+    }
+
+    @Test
+    @DisplayName("Remove, then do not suggest the product")
+    void remove_thenDoNotSuggest() {
+        final var milk = product("Mleko 1%", 0);
+        productSuggester.put(milk);
+
+        productSuggester.remove(milk.getId());
+
+        assertTrue(productSuggester.suggest("mleko", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Suggest, when prefix is blank, then return no suggestions")
+    void suggest_whenPrefixIsBlank_thenReturnEmptyList() {
+        productSuggester.put(product("Mleko 1%", 0));
+
+        assertTrue(productSuggester.suggest(" ", 10).isEmpty());
+    }
+
+    private Product product(String name, long cartCounter) {
+        var product = new Product(UUID.randomUUID().toString());
+        product.setName(name);
+        product.setCartCounter(cartCounter);
+        return product;
+    }
+
+    private ProductSuggestion suggestion(Product product) {
+        return new ProductSuggestion(product.getId(), product.getName(), product.getCartCounter());
+    }
+}
@@ -0,0 +1,121 @@
+package com.piotrek.diet.security.filter;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.piotrek.diet.security.token.Token;
+import com.piotrek.diet.security.token.TokenService;
+import com.piotrek.diet.security.token.VerifiedTokenCache;
+import com.piotrek.diet.user.UserIdentity;
+import com.piotrek.diet.user.UserService;
+import com.piotrek.diet.user.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationManagerTest {
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @InjectMocks
+    private JwtAuthenticationManager jwtAuthenticationManager;
+
+    private UserIdentity user;
+    private String tokenValue;
+
+    @BeforeEach
+    void beforeEach() {
+        user = new UserIdentity(UUID.randomUUID().toString(), "john", Role.ROLE_USER);
+        tokenValue = JWT.create()
+                .withSubject(user.getId())
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(Algorithm.HMAC512("secret".getBytes()));
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    @DisplayName("Authenticate, when token has been recently verified, then authenticate without database lookups")
+    void authenticate_whenTokenRecentlyVerified_thenSkipDatabase() {
+        when(verifiedTokenCache.get(tokenValue)).thenReturn(user);
+
+        final var authentication = jwtAuthenticationManager.authenticate(bearer(tokenValue)).block();
+
+        assertNotNull(authentication);
+        assertEquals(user.getId(), authentication.getPrincipal());
+        verify(verifiedTokenCache, times(1)).get(tokenValue);
+        verifyNoMoreInteractions(tokenService, userService, verifiedTokenCache);
+    }
+
+    @Test
+    @DisplayName("Authenticate, when token is valid, stored and its user exists, then authenticate the user and remember the token")
+    void authenticate_whenTokenValid_thenAuthenticateAndRememberToken() {
+        final var decodedToken = JWT.decode(tokenValue);
+        when(tokenService.verify(tokenValue)).thenReturn(decodedToken);
+        when(verifiedTokenCache.stamp()).thenReturn(7L);
+        when(tokenService.findByToken(tokenValue)).thenReturn(Mono.just(new Token(tokenValue, user.getId())));
+        when(userService.findIdentityById(user.getId())).thenReturn(Mono.just(user));
+
+        final var authentication = jwtAuthenticationManager.authenticate(bearer(tokenValue)).block();
+
+        assertNotNull(authentication);
+        assertEquals(user.getId(), authentication.getPrincipal());
+        assertEquals(List.<GrantedAuthority>of(new SimpleGrantedAuthority("ROLE_USER")), List.copyOf(authentication.getAuthorities()));
+        verify(verifiedTokenCache, times(1)).get(tokenValue);
+        verify(tokenService, times(1)).verify(tokenValue);
+        verify(tokenService, times(1)).findByToken(tokenValue);
+        verify(userService, times(1)).findIdentityById(user.getId());
+        verify(verifiedTokenCache, times(1)).stamp();
+        verify(verifiedTokenCache, times(1)).put(tokenValue, 7L, decodedToken.getExpiresAt(), user);
+        verifyNoMoreInteractions(tokenService, userService, verifiedTokenCache);
+    }
+
+    @Test
+    @DisplayName("Authenticate, when token signature is invalid, then return empty without database lookups")
+    void authenticate_whenTokenInvalid_thenReturnEmpty() {
+        when(tokenService.verify(tokenValue)).thenThrow(new SignatureVerificationException(Algorithm.none()));
+
+        assertNull(jwtAuthenticationManager.authenticate(bearer(tokenValue)).block());
+        verify(verifiedTokenCache, times(1)).get(tokenValue);
+        verify(tokenService, times(1)).verify(tokenValue);
+        verifyNoMoreInteractions(tokenService, userService, verifiedTokenCache);
+    }
+
+    @Test
+    @DisplayName("Authenticate, when token is not stored in database, then return empty")
+    void authenticate_whenTokenNotStored_thenReturnEmpty() {
+        when(tokenService.verify(tokenValue)).thenReturn(JWT.decode(tokenValue));
+        when(tokenService.findByToken(tokenValue)).thenReturn(Mono.empty());
+
+        assertNull(jwtAuthenticationManager.authenticate(bearer(tokenValue)).block());
+        verify(verifiedTokenCache, times(1)).get(tokenValue);
+        verify(tokenService, times(1)).verify(tokenValue);
+        verify(tokenService, times(1)).findByToken(tokenValue);
+        verify(verifiedTokenCache, times(1)).stamp();
+        verifyNoMoreInteractions(tokenService, userService, verifiedTokenCache);
+    }
+
+    private static UsernamePasswordAuthenticationToken bearer(String tokenValue) {
+        return new UsernamePasswordAuthenticationToken(null, tokenValue);
+    }
+}
@@ -2,7 +2,9 @@ package com.piotrek.diet.security.token;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.piotrek.diet.exceptions.NotFoundException;
 import com.piotrek.diet.user.User;
 import com.piotrek.diet.user.UserDto;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +28,9 @@ class TokenServiceTest {
     @Mock
     private TokenRepository tokenRepository;
 
+    @Mock
+    private VerifiedTokenCache verifiedTokenCache;
+
     @InjectMocks
     private TokenService tokenService;
 
@@ -92,21 +97,47 @@ class TokenServiceTest {
 
     @Test
     void update() {
+        final var previousTokenValue = token.getToken();
         Mockito.when(tokenRepository.findById(token.getId())).thenReturn(Mono.just(token));
         Mockito.when(tokenRepository.save(token)).thenReturn(Mono.just(token));
 
-        Token updated = tokenService.update(token.getToken(), token.getId()).block();
+        Token updated = tokenService.update("this.is.newJwtToken", token.getId()).block();
 
         assertNotNull(updated);
         assertAll(
-                () -> assertEquals(token.getToken(), updated.getToken()),
+                () -> assertEquals("this.is.newJwtToken", updated.getToken()),
                 () -> assertEquals(token.getUserId(), updated.getUserId()),
                 () -> assertEquals(token.getId(), updated.getId())
         );
 
+        var inOrder = inOrder(tokenRepository, verifiedTokenCache);
+        inOrder.verify(tokenRepository, times(1)).findById(token.getId());
+        inOrder.verify(tokenRepository, times(1)).save(token);
+        inOrder.verify(verifiedTokenCache, times(1)).invalidate(previousTokenValue);
+        verifyNoMoreInteractions(tokenRepository, verifiedTokenCache);
+    }
+
+    @Test
+    void update_whenTokenNotFound_thenThrowNotFoundException() {
+        Mockito.when(tokenRepository.findById(token.getId())).thenReturn(Mono.empty());
+
+        assertThrows(NotFoundException.class, () -> tokenService.update("this.is.newJwtToken", token.getId()).block());
         verify(tokenRepository, times(1)).findById(token.getId());
-        verify(tokenRepository, times(1)).save(token);
-        verifyNoMoreInteractions(tokenRepository);
+        verifyNoMoreInteractions(tokenRepository, verifiedTokenCache);
+    }
+
+    @Test
+    void verify_whenTokenIsGenerated_thenReturnDecodedToken() {
+        String tokenValue = tokenService.generateToken(user);
+
+        assertEquals(user.getId(), tokenService.verify(tokenValue).getSubject());
+    }
+
+    @Test
+    void verify_whenTokenIsSignedWithOtherSecret_thenThrowJWTVerificationException() {
+        String tokenValue = JWT.create().withSubject(user.getId()).sign(Algorithm.HMAC512("OtherSecret".getBytes()));
+
+        assertThrows(JWTVerificationException.class, () -> tokenService.verify(tokenValue));
     }
 
     @Test
@@ -0,0 +1,74 @@
+package com.piotrek.diet.security.token;
+
+import com.piotrek.diet.user.UserIdentity;
+import com.piotrek.diet.user.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final String TOKEN = "this.is.jwtToken";
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private UserIdentity identity;
+
+    @BeforeEach
+    void beforeEach() {
+        verifiedTokenCache = new VerifiedTokenCache();
+        identity = new UserIdentity(UUID.randomUUID().toString(), "john", Role.ROLE_USER);
+    }
+
+    @Test
+    @DisplayName("Get, when token has been verified and not expired, then return identity of its owner")
+    void get_whenTokenVerified_thenReturnIdentity() {
+        verifiedTokenCache.put(TOKEN, verifiedTokenCache.stamp(), new Date(System.currentTimeMillis() + 60_000), identity);
+
+        assertEquals(identity, verifiedTokenCache.get(TOKEN));
+        assertNull(verifiedTokenCache.get("this.is.otherJwtToken"));
+    }
+
+    @Test
+    @DisplayName("Put, when token has already expired, then do not remember it")
+    void put_whenTokenExpired_thenReturnNull() {
+        verifiedTokenCache.put(TOKEN, verifiedTokenCache.stamp(), new Date(System.currentTimeMillis() - 1), identity);
+
+        assertNull(verifiedTokenCache.get(TOKEN));
+    }
+
+    @Test
+    @DisplayName("Invalidate, when token has been replaced, then forget it")
+    void invalidate_whenTokenReplaced_thenReturnNull() {
+        verifiedTokenCache.put(TOKEN, verifiedTokenCache.stamp(), new Date(System.currentTimeMillis() + 60_000), identity);
+
+        verifiedTokenCache.invalidate(TOKEN);
+
+        assertNull(verifiedTokenCache.get(TOKEN));
+    }
+
+    @Test
+    @DisplayName("Put, when token has been replaced after its lookup started, then do not remember it")
+    void put_whenTokenReplacedDuringLookup_thenReturnNull() {
+        var stamp = verifiedTokenCache.stamp();
+        verifiedTokenCache.invalidate(TOKEN);
+
+        verifiedTokenCache.put(TOKEN, stamp, new Date(System.currentTimeMillis() + 60_000), identity);
+
+        assertNull(verifiedTokenCache.get(TOKEN));
+    }
+
+    @Test
+    @DisplayName("Put, when token has been replaced before its lookup started, then remember it")
+    void put_whenTokenReplacedBeforeLookup_thenReturnIdentity() {
+        verifiedTokenCache.invalidate(TOKEN);
+
+        verifiedTokenCache.put(TOKEN, verifiedTokenCache.stamp(), new Date(System.currentTimeMillis() + 60_000), identity);
+
+        assertEquals(identity, verifiedTokenCache.get(TOKEN));
+    }
+}
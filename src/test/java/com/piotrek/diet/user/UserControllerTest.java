@@ -116,7 +116,7 @@ class UserControllerTest {
     void isMealFavourite_whenUserHasAMealInFavourites_thenReturnTrue() {
         final var URI = "/users/" + user.getId() + "/meals/" + meal.getId() + "/favourites";
 
-        user.getFavouriteMeals().add(meal);
+        user.getFavouriteMealIds().add(meal.getId());
         userService.save(user).block();
 
         webTestClient.get().uri(URI)
@@ -149,7 +149,7 @@ class UserControllerTest {
         meal.setUserId(user.getId());
         list.add(mealDto);
 
-        user.getFavouriteMeals().add(meal);
+        user.getFavouriteMealIds().add(meal.getId());
         userService.save(user).block();
 
         var expected = new Page<>(list, 0, 10, list.size());
@@ -240,7 +240,7 @@ class UserControllerTest {
 
         list.add(mealDto);
 
-        user.getFavouriteMeals().add(meal);
+        user.getFavouriteMealIds().add(meal.getId());
         userService.save(user).block();
 
         webTestClient.get().uri(FIND_URI)
@@ -485,12 +485,11 @@ class UserControllerTest {
         var mealInCart = MealSample.coffee();
         mealInCart.getProducts().add(productInMealInCart);
 
-        cart.getMeals().add(mealInCart);
+        cart.getItems().add(CartItem.of(mealInCart));
         cart = cartService.save(cart).block();
 
         cartDto.getMeals().add(mealDtoConverter.toDto(mealInCart));
         cartDto.getMeals().add(mealDtoConverter.toDto(mealToAdd));
-        cartDto.getAllProducts().add(breadDto());
         cartDto.setKcal(mealToAdd.getKcal() + productInMealInCart.getKcal());
         cartDto.setFat(mealToAdd.getFat() + productInMealInCart.getFat());
         cartDto.setProtein(mealToAdd.getProtein() + productInMealInCart.getProtein());
@@ -499,6 +498,7 @@ class UserControllerTest {
         var duplicatedProduct = bananaDto();
         duplicatedProduct.setAmount(duplicatedProduct.getAmount() * 2);
         cartDto.getAllProducts().add(duplicatedProduct);
+        cartDto.getAllProducts().add(breadDto());
         cartDto.setItemCounter(2);
 
         final var URI = "/users/" + cart.getUserId() + "/carts/meals/" + mealToAdd.getId() + "?date=" +
@@ -527,14 +527,14 @@ class UserControllerTest {
 
         var productInCart = banana();
 
-        cart.getProducts().add(productInCart);
+        cart.getItems().add(CartItem.of(productInCart));
         cart = cartService.save(cart).block();
 
         var duplicatedProduct = bananaDto();
         duplicatedProduct.setAmount(duplicatedProduct.getAmount() * 2);
         cartDto.getProducts().add(bananaDto());
-        cartDto.getAllProducts().add(breadDto());
         cartDto.getAllProducts().add(duplicatedProduct);
+        cartDto.getAllProducts().add(breadDto());
         cartDto.getMeals().add(mealDtoInCart);
         cartDto.setItemCounter(2);
         cartDto.setCarbohydrate(bread().getCarbohydrate() + banana().getCarbohydrate() + productInCart.getCarbohydrate());
@@ -589,7 +589,7 @@ class UserControllerTest {
     @DisplayName("Add product to cart, when cart has one product, then cart has two products")
     void addProductToCart_whenCartHasOneProduct_thenCartHasTwoProducts() {
         final var productAlreadyInCart = banana();
-        cart.getProducts().add(productAlreadyInCart);
+        cart.getItems().add(CartItem.of(productAlreadyInCart));
         cart = cartService.save(cart).block();
 
         final var productToAdd = productService.save(bread()).block();
@@ -635,7 +635,7 @@ class UserControllerTest {
         mealInCart.getProducts().add(banana());
         var mealDtoInCart = mealDtoConverter.toDto(mealInCart);
 
-        cart.getMeals().add(mealInCart);
+        cart.getItems().add(CartItem.of(mealInCart));
         cart = cartService.save(cart).block();
 
         var duplicatedProduct = bananaDto();
@@ -677,7 +677,7 @@ class UserControllerTest {
         mealToDelete.getProducts().add(banana());
         mealToDelete = mealService.save(mealToDelete).block();
 
-        cart.getMeals().add(mealToDelete);
+        cart.getItems().add(CartItem.of(mealToDelete));
         cart = cartService.save(cart).block();
 
         final var URI = "/users/" + cart.getUserId() + "/carts/meals/" + mealToDelete.getId() + "?date=" +
@@ -705,8 +705,8 @@ class UserControllerTest {
         mealInCart = mealService.save(mealInCart).block();
         var mealDtoInCart = mealDtoConverter.toDto(mealInCart);
 
-        cart.getMeals().add(mealToDelete);
-        cart.getMeals().add(mealInCart);
+        cart.getItems().add(CartItem.of(mealToDelete));
+        cart.getItems().add(CartItem.of(mealInCart));
         cart = cartService.save(cart).block();
 
         cartDto.getAllProducts().add(mealDtoInCart.getProducts().get(0));
@@ -739,11 +739,17 @@ class UserControllerTest {
 
         productService.save(bread()).block();
 
-        cart.getMeals().add(mealToDelete);
-        cart.getProducts().add(bread());
+        cart.getItems().add(CartItem.of(mealToDelete));
+        cart.getItems().add(CartItem.of(bread()));
         cart = cartService.save(cart).block();
-        cart.getMeals().remove(0);
-        cartDto = cartDtoConverter.toDto(cart);
+
+        cartDto.getProducts().add(breadDto());
+        cartDto.getAllProducts().add(breadDto());
+        cartDto.setItemCounter(1);
+        cartDto.setProtein(bread().getProtein());
+        cartDto.setCarbohydrate(bread().getCarbohydrate());
+        cartDto.setFat(bread().getFat());
+        cartDto.setKcal(bread().getKcal());
 
         final var URI = "/users/" + cart.getUserId() + "/carts/meals/" + mealToDelete.getId() + "?date=" +
                 cart.getDate().format(DateTimeFormatter.ofPattern("dd-MM-yyyy"));
@@ -784,7 +790,7 @@ class UserControllerTest {
     void deleteProductFromCart_whenCartHasOneProduct_thenCartIsEmpty() {
         var productToDelete = productService.save(bread()).block();
 
-        cart.getProducts().add(bread());
+        cart.getItems().add(CartItem.of(bread()));
         cart = cartService.save(cart).block();
 
         final var URI = "/users/" + cart.getUserId() + "/carts/products/" + productToDelete.getId() + "?date=" +
@@ -806,8 +812,8 @@ class UserControllerTest {
         var productToDelete = productService.save(bread()).block();
         var productInCart = productService.save(banana()).block();
 
-        cart.getProducts().add(bread());
-        cart.getProducts().add(banana());
+        cart.getItems().add(CartItem.of(bread()));
+        cart.getItems().add(CartItem.of(banana()));
         cart = cartService.save(cart).block();
 
         cartDto.getProducts().add(productInCart);
@@ -842,8 +848,8 @@ class UserControllerTest {
         var productToDelete = productService.save(bread()).block();
         var productDtoToDelete = bread();
 
-        cart.getMeals().add(mealInCart);
-        cart.getProducts().add(productDtoToDelete);
+        cart.getItems().add(CartItem.of(mealInCart));
+        cart.getItems().add(CartItem.of(productDtoToDelete));
         cart = cartService.save(cart).block();
 
         cartDto.getMeals().add(mealDtoInCart);
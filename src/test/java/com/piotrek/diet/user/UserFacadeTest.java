@@ -21,13 +21,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.PageRequest;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static com.piotrek.diet.helpers.AssertEqualAllFields.assertMealFields;
@@ -242,7 +242,6 @@ class UserFacadeTest {
         var expected = new Page<>(new ArrayList<MealDto>(), page, pageSize, totalElements);
 
         when(userService.findById(user.getId())).thenReturn(Mono.just(user));
-        when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
 
         var block = userFacade.findFavouriteMeals(user.getId(), PageRequest.of(page, pageSize)).block();
 
@@ -260,133 +259,89 @@ class UserFacadeTest {
         var totalElements = 1;
         var expected = new Page<>(new ArrayList<>(Set.of(mealDto)), page, pageSize, totalElements);
 
-        user.setFavouriteMeals(new HashSet<>(Set.of(meal)));
+        user.getFavouriteMealIds().add(meal.getId());
 
         when(userService.findById(user.getId())).thenReturn(Mono.just(user));
+        when(mealService.findAllByIds(List.of(meal.getId()))).thenReturn(Flux.just(meal));
         when(mealDtoConverter.toDto(meal)).thenReturn(mealDto);
 
         var block = userFacade.findFavouriteMeals(user.getId(), PageRequest.of(page, pageSize)).block();
 
         assertEquals(expected, block);
         verify(userService, times(1)).findById(user.getId());
+        verify(mealService, times(1)).findAllByIds(List.of(meal.getId()));
         verify(mealDtoConverter, times(1)).toDto(meal);
         verifyNoMoreInteractions(userService, productService, mealService, mealDtoConverter, cartService, tokenService);
     }
 
     @Test
-    @DisplayName("Add to favourite list, when user has no favourite meals, then list size is one")
-    void addToFavourite_whenUserHasNoFavourites_thenListSizeEqualOne() {
-        when(userService.findById(user.getId())).thenReturn(Mono.just(user));
-        when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
-        when(mealService.save(meal)).thenReturn(Mono.just(meal));
-        when(userService.save(user)).thenReturn(Mono.just(user));
-
-        userFacade.addToFavourite(user.getId(), meal.getId()).block();
-
-        assertEquals(1, user.getFavouriteMeals().size());
-        verify(userService, times(1)).findById(user.getId());
-        verify(mealService, times(1)).findById(meal.getId());
-        verify(mealService, times(1)).save(meal);
-        verify(userService, times(1)).save(user);
-        verify(mealDtoConverter, times(0)).toDto(meal);
-        verifyNoMoreInteractions(userService, productService, mealService, mealDtoConverter, cartService, tokenService);
-    }
-
-    @Test
-    @DisplayName("Add to favourite list, when user has no favourite meals, then list size is one")
-    void addToFavourite_whenMealIsFirstTimeAddedToFavourites_thenFavouriteCounterEqualOne() {
-        meal.setFavouriteCounter(new AtomicLong(0));
+    @DisplayName("Find favourite meals, when user has more favourites than page size, then load only meals of the requested page in favourites order")
+    void findFavouriteMeals_whenUserHasMoreMealsThanPageSize_thenLoadOnlyRequestedPage() {
+        var first = new Meal("first");
+        var second = new Meal("second");
+        var third = new Meal("third");
+        var secondDto = new MealDto();
+        secondDto.setId(second.getId());
+        var thirdDto = new MealDto();
+        thirdDto.setId(third.getId());
+        var expected = new Page<>(List.of(secondDto, thirdDto), 1, 2, 4);
+
+        user.getFavouriteMealIds().addAll(List.of(first.getId(), "deleted", second.getId(), third.getId()));
 
         when(userService.findById(user.getId())).thenReturn(Mono.just(user));
-        when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
-        when(mealService.save(meal)).thenReturn(Mono.just(meal));
-        when(userService.save(user)).thenReturn(Mono.just(user));
+        when(mealService.findAllByIds(List.of(second.getId(), third.getId()))).thenReturn(Flux.just(third, second));
+        when(mealDtoConverter.toDto(second)).thenReturn(secondDto);
+        when(mealDtoConverter.toDto(third)).thenReturn(thirdDto);
 
-        userFacade.addToFavourite(user.getId(), meal.getId()).block();
+        var block = userFacade.findFavouriteMeals(user.getId(), PageRequest.of(1, 2)).block();
 
-        assertEquals(1, meal.getFavouriteCounter().intValue());
+        assertEquals(expected, block);
         verify(userService, times(1)).findById(user.getId());
-        verify(mealService, times(1)).findById(meal.getId());
-        verify(mealService, times(1)).save(meal);
-        verify(userService, times(1)).save(user);
-        verify(mealDtoConverter, times(0)).toDto(meal);
+        verify(mealService, times(1)).findAllByIds(List.of(second.getId(), third.getId()));
+        verify(mealDtoConverter, times(1)).toDto(second);
+        verify(mealDtoConverter, times(1)).toDto(third);
         verifyNoMoreInteractions(userService, productService, mealService, mealDtoConverter, cartService, tokenService);
     }
 
     @Test
-    @DisplayName("Add to favourite list, when user has no favourite meals, then list size is one")
-    void addToFavourite_whenMealIsSecondTimeAddedToFavourites_thenFavouriteCounterEqualTwo() {
-        User user2 = UserSample.baileyWithId();
-        meal.setFavouriteCounter(new AtomicLong(0));
-
+    @DisplayName("Add to favourite, when meal is not in user favourites, then add it and increment the meal favouriteCounter")
+    void addToFavourite_whenMealIsNotInFavourites_thenAddAndIncrementFavouriteCounter() {
         when(userService.findById(user.getId())).thenReturn(Mono.just(user));
-        when(userService.findById(user2.getId())).thenReturn(Mono.just(user2));
         when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
-        when(mealService.save(meal)).thenReturn(Mono.just(meal));
-        when(userService.save(user)).thenReturn(Mono.just(user));
-        when(userService.save(user2)).thenReturn(Mono.just(user2));
+        when(userService.addFavouriteMeal(user.getId(), meal.getId())).thenReturn(Mono.just(true));
+        when(mealService.incrementFavouriteCounter(meal.getId(), 1)).thenReturn(Mono.empty());
 
         userFacade.addToFavourite(user.getId(), meal.getId()).block();
-        userFacade.addToFavourite(user2.getId(), meal.getId()).block();
-
-        assertEquals(2, meal.getFavouriteCounter().intValue());
-        verify(userService, times(2)).findById(anyString());
-        verify(mealService, times(2)).findById(meal.getId());
-        verify(mealService, times(2)).save(meal);
-        verify(userService, times(2)).save(any(User.class));
-        verify(mealDtoConverter, times(0)).toDto(meal);
-        verifyNoMoreInteractions(userService, productService, mealService, mealDtoConverter, cartService, tokenService);
-    }
 
-    @Test
-    @DisplayName("Add to favourite list, when user has 2 favourite meals, then list equals 3")
-    void addToFavourite_whenUserHasTwoFavouriteMeals_thenListSizeEqualThree() {
-        when(userService.findById(user.getId())).thenReturn(Mono.just(user));
-        when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
-        when(userService.save(user)).thenReturn(Mono.just(user));
-        when(mealService.save(meal)).thenReturn(Mono.just(meal));
-
-        user.getFavouriteMeals().add(new Meal(UUID.randomUUID().toString()));
-        user.getFavouriteMeals().add(new Meal(UUID.randomUUID().toString()));
-
-        userFacade.addToFavourite(user.getId(), meal.getId()).block();
-
-        assertEquals(3, user.getFavouriteMeals().size());
         verify(userService, times(1)).findById(user.getId());
-        verify(userService, times(1)).save(user);
         verify(mealService, times(1)).findById(meal.getId());
-        verify(mealService, times(1)).save(meal);
+        verify(userService, times(1)).addFavouriteMeal(user.getId(), meal.getId());
+        verify(mealService, times(1)).incrementFavouriteCounter(meal.getId(), 1);
         verifyNoMoreInteractions(userService, productService, mealService, mealDtoConverter, cartService, tokenService);
     }
 
     @Test
-    @DisplayName("Add to favourite, when add meal which is already in user favourites, then throw BadRequestException")
-    void addToFavourite_whenUserHasTwoFavouriteMealsAndWeAddMealWhichIsAlreadyInFavourite_thenThrowException() {
+    @DisplayName("Add to favourite, when meal is already in user favourites, then throw BadRequestException and keep the favouriteCounter")
+    void addToFavourite_whenMealIsAlreadyInFavourites_thenThrowBadRequestException() {
         when(userService.findById(user.getId())).thenReturn(Mono.just(user));
         when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
-
-        user.getFavouriteMeals().add(new Meal());
-        user.getFavouriteMeals().add(meal);
+        when(userService.addFavouriteMeal(user.getId(), meal.getId())).thenReturn(Mono.just(false));
 
         assertThrows(BadRequestException.class, () -> userFacade.addToFavourite(user.getId(), meal.getId()).block());
 
         verify(userService, times(1)).findById(user.getId());
         verify(mealService, times(1)).findById(meal.getId());
+        verify(userService, times(1)).addFavouriteMeal(user.getId(), meal.getId());
         verifyNoMoreInteractions(userService, productService, mealService, mealDtoConverter, cartService, tokenService);
     }
 
     @Test
-    @DisplayName("Add to favourite, when add meal which is already in user favourites, then the meal favouriteCounter has the same value")
-    void addToFavourite_whenAddMealWhichIsAlreadyInFavourite_thenFavouriteCounterHasTheSameValue() {
-        user.getFavouriteMeals().add(new Meal());
-        user.getFavouriteMeals().add(meal);
-        meal.setFavouriteCounter(new AtomicLong(0));
-
+    @DisplayName("Add to favourite, when meal does not exist, then throw NotFoundException")
+    void addToFavourite_whenMealNotFound_thenThrowNotFoundException() {
         when(userService.findById(user.getId())).thenReturn(Mono.just(user));
-        when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
+        when(mealService.findById(meal.getId())).thenReturn(Mono.error(new NotFoundException("")));
 
-        assertThrows(BadRequestException.class, () -> userFacade.addToFavourite(user.getId(), meal.getId()).block());
-        assertEquals(0, meal.getFavouriteCounter().intValue());
+        assertThrows(NotFoundException.class, () -> userFacade.addToFavourite(user.getId(), meal.getId()).block());
 
         verify(userService, times(1)).findById(user.getId());
         verify(mealService, times(1)).findById(meal.getId());
@@ -394,44 +349,26 @@ class UserFacadeTest {
     }
 
     @Test
-    @DisplayName("Delete from favourites, when user ")
-    void deleteFromFavourites_whenUserHasThreeFavouriteMeals_thenUserHasTwoFavouriteMeals() {
-        final var ID_TO_DELETE = meal.getId();
-        user.setFavouriteMeals(new HashSet<>(Set.of(meal,
-                new Meal(UUID.randomUUID().toString()), new Meal(UUID.randomUUID().toString()))));
-
-        when(userService.findById(user.getId())).thenReturn(Mono.just(user));
-        when(userService.save(user)).thenReturn(Mono.just(user));
-        when(mealService.findById(meal.getId())).thenReturn(Mono.just(meal));
-        when(mealService.save(meal)).thenReturn(Mono.just(meal));
+    @DisplayName("Delete from favourites, when meal is in user favourites, then remove it and decrement the meal favouriteCounter")
+    void deleteFromFavourites_whenMealIsInFavourites_thenRemoveAndDecrementFavouriteCounter() {
+        when(userService.removeFavouriteMeal(user.getId(), meal.getId())).thenReturn(Mono.just(true));
+        when(mealService.incrementFavouriteCounter(meal.getId(), -1)).thenReturn(Mono.empty());
 
-        userFacade.deleteFromFavourite(user.getId(), ID_TO_DELETE).block();
+        userFacade.deleteFromFavourite(user.getId(), meal.getId()).block();
 
-        assertEquals(2, user.getFavouriteMeals().size());
-        verify(userService, times(1)).findById(user.getId());
-        verify(userService, times(1)).save(user);
-        verify(mealService, times(1)).findById(meal.getId());
-        verify(mealService, times(1)).save(meal);
+        verify(userService, times(1)).removeFavouriteMeal(user.getId(), meal.getId());
+        verify(mealService, times(1)).incrementFavouriteCounter(meal.getId(), -1);
         verifyNoMoreInteractions(userService, productService, mealService, mealDtoConverter, cartService, tokenService);
     }
 
     @Test
-    @DisplayName("Delete from favourites, when user ")
-    void deleteFromFavourites_whenMethodIsInvoked_thenUserHasNoLongerThisMealInFavouriteListaaa() {
-        final var ID_TO_DELETE = meal.getId();
-        user.setFavouriteMeals(new HashSet<>(Set.of(meal,
-                new Meal(UUID.randomUUID().toString()), new Meal(UUID.randomUUID().toString()))));
+    @DisplayName("Delete from favourites, when meal is not in user favourites, then throw BadRequestException")
+    void deleteFromFavourites_whenMealIsNotInFavourites_thenThrowBadRequestException() {
+        when(userService.removeFavouriteMeal(user.getId(), meal.getId())).thenReturn(Mono.just(false));
 
-        when(userService.findById(user.getId())).thenReturn(Mono.just(user));
-        when(userService.save(user)).thenReturn(Mono.just(user));
-        when(mealService.findById(meal.getId())).thenReturn(Mono.error(new NotFoundException("")));
-
-        userFacade.deleteFromFavourite(user.getId(), ID_TO_DELETE).block();
+        assertThrows(BadRequestException.class, () -> userFacade.deleteFromFavourite(user.getId(), meal.getId()).block());
 
-        assertEquals(2, user.getFavouriteMeals().size());
-        verify(userService, times(1)).findById(user.getId());
-        verify(userService, times(1)).save(user);
-        verify(mealService, times(1)).findById(meal.getId());
+        verify(userService, times(1)).removeFavouriteMeal(user.getId(), meal.getId());
         verifyNoMoreInteractions(userService, productService, mealService, mealDtoConverter, cartService, tokenService);
     }
 
@@ -464,9 +401,7 @@ class UserFacadeTest {
     void isFavourite_whenUserFavouritesContainsCheckingMeal_thenReturnTrue() {
         when(userService.findById(user.getId())).thenReturn(Mono.just(user));
 
-        var set = new HashSet<Meal>();
-        set.add(meal);
-        user.setFavouriteMeals(set);
+        user.getFavouriteMealIds().add(meal.getId());
 
         Boolean block = userFacade.isFavourite(user.getId(), meal.getId()).block();
 
@@ -480,7 +415,7 @@ class UserFacadeTest {
     void isFavourite_whenUserFavouritesDoesNotContainCheckingMeal_thenReturnFalse() {
         when(userService.findById(user.getId())).thenReturn(Mono.just(user));
 
-        user.setFavouriteMeals(new HashSet<>());
+        user.setFavouriteMealIds(new LinkedHashSet<>());
 
         Boolean block = userFacade.isFavourite(user.getId(), meal.getId()).block();
 
@@ -1,6 +1,7 @@
 package com.piotrek.diet.user;
 
 import com.piotrek.diet.exceptions.NotFoundException;
+import com.piotrek.diet.helpers.MealSample;
 import com.piotrek.diet.helpers.UserSample;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,6 +12,7 @@ import org.mockito.MockitoAnnotations;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.UUID;
 
@@ -217,6 +219,60 @@ class UserServiceTest {
         verifyNoMoreInteractions(userRepository, userDtoConverter, caloriesCalculator, macronutrientCalculator);
     }
 
+    @Test
+    @DisplayName("Update last visit, then set only the last visit in the repository")
+    void updateLastVisit_thenSetOnlyLastVisit() {
+        when(userRepository.updateLastVisit(eq(user.getId()), any(LocalDateTime.class))).thenReturn(Mono.empty());
+
+        userService.updateLastVisit(user.getId()).block();
+
+        verify(userRepository, times(1)).updateLastVisit(eq(user.getId()), any(LocalDateTime.class));
+        verifyNoMoreInteractions(userRepository, userDtoConverter, caloriesCalculator, macronutrientCalculator);
+    }
+
+    @Test
+    @DisplayName("Find identity by id, when found, then return the projection without loading the whole user")
+    void findIdentityById_whenFound_thenReturnIdentity() {
+        final var identity = new UserIdentity(user.getId(), user.getUsername(), user.getRole());
+        when(userRepository.findIdentityById(user.getId())).thenReturn(Mono.just(identity));
+
+        assertEquals(identity, userService.findIdentityById(user.getId()).block());
+        verify(userRepository, times(1)).findIdentityById(user.getId());
+        verifyNoMoreInteractions(userRepository, userDtoConverter, caloriesCalculator, macronutrientCalculator);
+    }
+
+    @Test
+    @DisplayName("Find identity by id, when not found, then return empty")
+    void findIdentityById_whenNotFound_thenReturnEmpty() {
+        when(userRepository.findIdentityById(user.getId())).thenReturn(Mono.empty());
+
+        assertNull(userService.findIdentityById(user.getId()).block());
+        verify(userRepository, times(1)).findIdentityById(user.getId());
+        verifyNoMoreInteractions(userRepository, userDtoConverter, caloriesCalculator, macronutrientCalculator);
+    }
+
+    @Test
+    @DisplayName("Add favourite meal, then add it to the set in the repository and return whether it was added")
+    void addFavouriteMeal_whenNotInFavourites_thenReturnTrue() {
+        final var mealId = MealSample.coffee().getId();
+        when(userRepository.addFavouriteMeal(user.getId(), mealId)).thenReturn(Mono.just(true));
+
+        assertTrue(userService.addFavouriteMeal(user.getId(), mealId).block());
+        verify(userRepository, times(1)).addFavouriteMeal(user.getId(), mealId);
+        verifyNoMoreInteractions(userRepository, userDtoConverter, caloriesCalculator, macronutrientCalculator);
+    }
+
+    @Test
+    @DisplayName("Remove favourite meal, when meal is not in favourites, then return false")
+    void removeFavouriteMeal_whenNotInFavourites_thenReturnFalse() {
+        final var mealId = MealSample.coffee().getId();
+        when(userRepository.removeFavouriteMeal(user.getId(), mealId)).thenReturn(Mono.just(false));
+
+        assertFalse(userService.removeFavouriteMeal(user.getId(), mealId).block());
+        verify(userRepository, times(1)).removeFavouriteMeal(user.getId(), mealId);
+        verifyNoMoreInteractions(userRepository, userDtoConverter, caloriesCalculator, macronutrientCalculator);
+    }
+
     @Test
     void update_whenUpdate_thenUserHasUpdatedFields() {
         final var userDto = UserSample.johnDto();
@@ -242,7 +298,7 @@ class UserServiceTest {
 
 
         when(userRepository.findById(user.getId())).thenReturn(Mono.just(user));
-        when(userRepository.save(user)).thenReturn(Mono.just(user));
+        when(userRepository.updateProfile(user)).thenReturn(Mono.just(user));
         when(userDtoConverter.toDto(user)).thenReturn(userDto);
         when(caloriesCalculator.calculateCaloriesPerDay(userDto)).thenCallRealMethod();
         when(macronutrientCalculator.calculateDailyCarbohydrate(userDto.getCaloriesPerDay())).thenCallRealMethod();
@@ -253,7 +309,7 @@ class UserServiceTest {
 
         assertUserFields(userDto, actualUser);
         verify(userRepository, times(1)).findById(user.getId());
-        verify(userRepository, times(1)).save(user);
+        verify(userRepository, times(1)).updateProfile(user);
         verify(caloriesCalculator, times(1)).calculateCaloriesPerDay(userDto);
         verify(macronutrientCalculator, times(1)).calculateDailyFat(userDto.getCaloriesPerDay());
         verify(macronutrientCalculator, times(1)).calculateDailyCarbohydrate(userDto.getCaloriesPerDay());